@@ -0,0 +1,8 @@
+#!/bin/sh
+# Builds annoconf and the benchmarks and runs them. Extra arguments are passed to JMH,
+# e.g. "benchmarks/run.sh ReadBenchmark -p source=miss". Results are written to benchmarks/target/results.json.
+set -e
+cd "$(dirname "$0")/.."
+mvn -B -q install -DskipTests
+mvn -B -q -f benchmarks/pom.xml package
+java -jar benchmarks/target/benchmarks.jar -rf json -rff benchmarks/target/results.json "$@"
@@ -0,0 +1,47 @@
+package github.footloosejava.annoconf.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates the INI files the benchmarks read, so every run starts from the same input.
+ */
+final class BenchmarkFiles {
+
+    static final String NAMESPACE = "bench";
+    static final String SECTION = "BENCH";
+    static final int KEYS_PER_SECTION = 100;
+
+    private BenchmarkFiles() {
+    }
+
+    /**
+     * @param keys number of keys, spread over sections named SECTION_0, SECTION_1 ... except the first
+     *             {@link #KEYS_PER_SECTION} keys that are in {@link #SECTION}
+     * @return the file, deleted on exit
+     */
+    static Path ini(int keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys; i++) {
+            if (i % KEYS_PER_SECTION == 0) {
+                sb.append('[').append(i == 0 ? SECTION : SECTION + "_" + i / KEYS_PER_SECTION).append("]\n");
+            }
+            sb.append("KEY_").append(i).append(" = ").append(i).append('\n');
+        }
+        return write(sb.toString());
+    }
+
+    static Path write(String content) {
+        try {
+            Path file = Files.createTempFile("annoconf-bench", ".ini");
+            file.toFile().deleteOnExit();
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package github.footloosejava.annoconf.benchmarks;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import github.footloosejava.annoconf.Configuration;
+import github.footloosejava.annoconf.INIConfiguration;
+import github.footloosejava.annoconf.usage.ConfigurableExample;
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating an injector with the binding loop of {@link ConfigurableExample#configure()},
+ * with the sample INI file plus a number of extra keys that are bound by name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BindBenchmark {
+
+    @Param({"0", "1000"})
+    public int extraKeys;
+
+    private Configuration configuration;
+
+    @Setup
+    public void setup() {
+        StringBuilder ini = new StringBuilder()
+                .append("[SampleEnum]\nTEST_1 = TEST 1 SECTION_TRANSLATE\nTEST_3 = TEST 3 SECTION_TRANSLATE\n")
+                .append("[SampleClass]\nFOO = 456\n")
+                .append("[extra]\n");
+        for (int i = 0; i < extraKeys; i++) {
+            ini.append("KEY_").append(i).append(" = ").append(i).append('\n');
+        }
+        configuration = new INIConfiguration(BenchmarkFiles.write(ini.toString()).toString())
+                .addNamespaceToINIMapping("github.footloosejava.annoconf.usage.SampleEnum", "SampleEnum")
+                .addNamespaceToINIMapping("usage.SampleClass", "SampleClass")
+                .putDefaults(SampleEnum.values())
+                .putDefaults(SampleClass.values());
+    }
+
+    @Benchmark
+    public Injector createInjector() {
+        return Guice.createInjector(new ConfigurableExample(configuration));
+    }
+}
@@ -0,0 +1,58 @@
+package github.footloosejava.annoconf.benchmarks;
+
+import com.google.inject.name.Names;
+import github.footloosejava.annoconf.Configurable;
+import github.footloosejava.annoconf.ConfigurableBuilder;
+import github.footloosejava.annoconf.INIConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single key integer reads by {@link Configurable} and by fully qualified name, the typed counterpart of
+ * {@link ReadBenchmark}. Only keys with a value, reading a missing key as an integer throws.
+ * <ul>
+ * <li>ini - the value is only in the INI file, reached through a namespace mapping</li>
+ * <li>override - the value was put programmatically</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IntegerReadBenchmark {
+
+    @Param({"ini", "override"})
+    public String source;
+
+    private INIConfiguration configuration;
+    private Configurable key;
+    private String fullyQualifiedName;
+
+    @Setup
+    public void setup() {
+        configuration = new INIConfiguration(BenchmarkFiles.ini(BenchmarkFiles.KEYS_PER_SECTION).toString())
+                .addNamespaceToINIMapping(BenchmarkFiles.NAMESPACE, BenchmarkFiles.SECTION);
+        String name;
+        if (source.equals("ini")) {
+            name = "KEY_42";
+        } else {
+            name = "OVERRIDE";
+            configuration.putFullyQualifiedName(BenchmarkFiles.NAMESPACE + "-" + name, "42");
+        }
+        fullyQualifiedName = BenchmarkFiles.NAMESPACE + "-" + name;
+        key = new ConfigurableBuilder(BenchmarkFiles.NAMESPACE, name, null, null, Names.named(fullyQualifiedName));
+    }
+
+    @Benchmark
+    public int integerByConfigurable() {
+        return configuration.integer(key);
+    }
+
+    @Benchmark
+    public int integerByFullyQualifiedName() {
+        return configuration.integerFullyQualifiedName(fullyQualifiedName);
+    }
+}
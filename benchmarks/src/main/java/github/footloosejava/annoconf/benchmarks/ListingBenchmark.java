@@ -0,0 +1,48 @@
+package github.footloosejava.annoconf.benchmarks;
+
+import github.footloosejava.annoconf.INIConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing every key of a configuration, half of the keys come from the INI file and half were put.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ListingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int keys;
+
+    private INIConfiguration configuration;
+
+    @Setup
+    public void setup() {
+        configuration = new INIConfiguration(BenchmarkFiles.ini(keys / 2).toString())
+                .addNamespaceToINIMapping(BenchmarkFiles.NAMESPACE, BenchmarkFiles.SECTION);
+        for (int i = 0; i < keys / 2; i++) {
+            configuration.putFullyQualifiedName("put-KEY_" + i, Integer.toString(i));
+        }
+    }
+
+    @Benchmark
+    public Set<String> keys() {
+        return configuration.keys(Collections.emptyList());
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        configuration.forEach((k, v) -> {
+            blackhole.consume(k);
+            blackhole.consume(v);
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package github.footloosejava.annoconf.benchmarks;
+
+import github.footloosejava.annoconf.INIConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts from several threads, each thread writing its own keys of one shared configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+public class PutBenchmark {
+
+    private static final int KEYS = 1024;
+
+    private INIConfiguration configuration;
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private final String[] names = new String[KEYS];
+        private int next;
+
+        @Setup
+        public void setup() {
+            String namespace = BenchmarkFiles.NAMESPACE + Thread.currentThread().getId();
+            for (int i = 0; i < KEYS; i++) {
+                names[i] = namespace + "-KEY_" + i;
+            }
+        }
+
+        private String nextName() {
+            next = (next + 1) & (KEYS - 1);
+            return names[next];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        configuration = new INIConfiguration(BenchmarkFiles.ini(BenchmarkFiles.KEYS_PER_SECTION).toString())
+                .addNamespaceToINIMapping(BenchmarkFiles.NAMESPACE, BenchmarkFiles.SECTION);
+    }
+
+    @Benchmark
+    public void put(Writer writer) {
+        configuration.putFullyQualifiedName(writer.nextName(), "value");
+    }
+
+    @Benchmark
+    public void putAfterListing(Writer writer) {
+        // once the keys were listed every put also maintains the sorted key index
+        if (writer.next == 0) {
+            configuration.forEach((k, v) -> {
+            });
+        }
+        configuration.putFullyQualifiedName(writer.nextName(), "value");
+    }
+}
@@ -0,0 +1,64 @@
+package github.footloosejava.annoconf.benchmarks;
+
+import com.google.inject.name.Names;
+import github.footloosejava.annoconf.Configurable;
+import github.footloosejava.annoconf.ConfigurableBuilder;
+import github.footloosejava.annoconf.INIConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single key reads by {@link Configurable} and by fully qualified name.
+ * <ul>
+ * <li>ini - the value is only in the INI file, reached through a namespace mapping</li>
+ * <li>override - the value was put programmatically</li>
+ * <li>miss - no value anywhere</li>
+ * </ul>
+ * Typed reads are in {@link IntegerReadBenchmark}, a miss has no integer to read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ReadBenchmark {
+
+    @Param({"ini", "override", "miss"})
+    public String source;
+
+    private INIConfiguration configuration;
+    private Configurable key;
+    private String fullyQualifiedName;
+
+    @Setup
+    public void setup() {
+        configuration = new INIConfiguration(BenchmarkFiles.ini(BenchmarkFiles.KEYS_PER_SECTION).toString())
+                .addNamespaceToINIMapping(BenchmarkFiles.NAMESPACE, BenchmarkFiles.SECTION);
+        String name;
+        switch (source) {
+            case "ini":
+                name = "KEY_42";
+                break;
+            case "override":
+                name = "OVERRIDE";
+                configuration.putFullyQualifiedName(BenchmarkFiles.NAMESPACE + "-" + name, "42");
+                break;
+            default:
+                name = "MISSING";
+        }
+        fullyQualifiedName = BenchmarkFiles.NAMESPACE + "-" + name;
+        key = new ConfigurableBuilder(BenchmarkFiles.NAMESPACE, name, null, null, Names.named(fullyQualifiedName));
+    }
+
+    @Benchmark
+    public String stringByConfigurable() {
+        return configuration.string(key);
+    }
+
+    @Benchmark
+    public String stringByFullyQualifiedName() {
+        return configuration.stringFullyQualifiedName(fullyQualifiedName);
+    }
+}
@@ -0,0 +1,35 @@
+package github.footloosejava.annoconf;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Generates a typed accessor class for an enum or class of Configurables.
+ * <p>
+ * The generated class is named after the annotated type with the suffix "Accessor" and is placed in the same package.
+ * Its constructor resolves and parses every constant once from a {@link Configuration}, and every constant gets a
+ * getter returning the parsed value from a final field. Constants are Strings unless annotated with {@link Type}.
+ * <pre>
+ * SampleEnumAccessor accessor = new SampleEnumAccessor(configuration);
+ * int number = accessor.testNumber();
+ * </pre>
+ * For a class, the constants are its public static final fields of its own type.
+ * The processor is registered as a service, so it runs whenever this library is on the compile classpath.
+ */
+@Retention(CLASS)
+@Target(ElementType.TYPE)
+public @interface Accessor {
+
+    /**
+     * The type of the getter of a constant: int, long, float, double, boolean or String.
+     */
+    @Retention(CLASS)
+    @Target(ElementType.FIELD)
+    @interface Type {
+
+        Class<?> value();
+    }
+}
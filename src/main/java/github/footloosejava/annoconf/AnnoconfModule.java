@@ -0,0 +1,212 @@
+package github.footloosejava.annoconf;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.name.Names;
+
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+/**
+ * Binds a {@link Configuration} and its values as Guice constants.
+ * <ul>
+ * <li>the configuration itself</li>
+ * <li>the value of every given Configurable under its annotation. The value is also bound pre-converted to the one
+ * type its default value parses as, the narrowest of Integer, Long, Double and Boolean, or its own value if there is
+ * no default, so the usual injection point needs no conversion. Guice converts the constant for any other type</li>
+ * <li>every key of the configuration under {@link com.google.inject.name.Named} with its fully qualified name</li>
+ * </ul>
+ * All values are resolved once from one {@link Configuration#snapshot()}.
+ * <p>
+ * Named keys are bound as constants, which Guice converts to any primitive type an injection point asks for. Above
+ * {@link #lazyNamedAbove(int) a number of keys}, 1000 by default, they are bound to String providers instead,
+ * which look the value up in the snapshot only when it is injected, so creating the injector does not declare and
+ * retain a constant per key of a large INI file. Such a key is injectable as String only, inject a Configurable
+ * under its annotation for a typed value. There is still one binding per key.
+ * <p>
+ * With {@link #dynamic()} the Configurables are bound to providers of String, Integer, Long, Float, Double and
+ * Boolean instead. The providers read the latest snapshot, which is replaced whenever the configuration reports a
+ * change in one of their namespaces, so an injected {@code Provider<Integer>} follows puts and reloads without
+ * creating a new injector. The module subscribes once, on the first injector it configures, and every injector
+ * created from it shares that subscription. Close the module to stop following changes; a module configured again
+ * after closing subscribes anew.
+ */
+public class AnnoconfModule extends AbstractModule implements AutoCloseable {
+
+    private final Configuration configuration;
+    private final List<Configurable> configurables = new ArrayList<>();
+    private final List<ConfigurationSubscription> subscriptions = new ArrayList<>();
+    private boolean dynamic;
+    private int lazyNamedAbove = 1000;
+    // CREATED ONCE - guarded by subscriptions
+    private LatestSnapshot latest;
+
+    /**
+     * @param configuration the configuration
+     * @param configurables the Configurables to bind under their annotations
+     */
+    public AnnoconfModule(Configuration configuration, Configurable[]... configurables) {
+        this.configuration = Objects.requireNonNull(configuration, "configuration");
+        for (Configurable[] ca : configurables) {
+            if (ca != null) {
+                Collections.addAll(this.configurables, ca);
+            }
+        }
+    }
+
+    /**
+     * Binds the Configurables to providers that follow changes of the configuration.
+     * A provider throws if the value is null or cannot be converted when it is called.
+     *
+     * @return this module
+     */
+    public AnnoconfModule dynamic() {
+        this.dynamic = true;
+        return this;
+    }
+
+    /**
+     * @param keys the number of keys up to which named keys are bound as constants, above it they are bound to
+     *             providers, 0 to always bind providers
+     * @return this module
+     */
+    public AnnoconfModule lazyNamedAbove(int keys) {
+        if (keys < 0) {
+            throw new IllegalArgumentException("keys must not be negative: " + keys);
+        }
+        this.lazyNamedAbove = keys;
+        return this;
+    }
+
+    @Override
+    protected void configure() {
+        bind(Configuration.class).toInstance(configuration);
+
+        ConfigurationSnapshot snapshot = configuration.snapshot();
+
+        if (dynamic) {
+            LatestSnapshot latest = latest();
+            for (Configurable configurable : configurables) {
+                bindProviders(configurable, latest);
+            }
+        } else {
+            // BIND ALL NON NULL VALUES AS ANNOTATIONS
+            for (Configurable configurable : configurables) {
+                String value = snapshot.string(configurable);
+                if (value != null) {
+                    ConfProps confProps = configurable.getConfProps();
+                    bindValue(confProps.getAnnotation(), value,
+                            confProps.getDefaultValue() != null ? confProps.getDefaultValue() : value);
+                }
+            }
+        }
+
+        // BIND ALL KEYS AS NAMED - Guice converts constants only when an injection point asks for another type
+        if (snapshot.size() > lazyNamedAbove) {
+            snapshot.forEach((k, v) -> bind(Key.get(String.class, Names.named(k)))
+                    .toProvider((Provider<String>) () -> snapshot.stringFullyQualifiedName(k)));
+        } else {
+            snapshot.forEach((k, v) -> bindConstant().annotatedWith(Names.named(k)).to(v));
+        }
+    }
+
+    private LatestSnapshot latest() {
+        synchronized (subscriptions) {
+            if (latest == null) {
+                latest = new LatestSnapshot();
+            }
+            return latest;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (subscriptions) {
+            subscriptions.forEach(ConfigurationSubscription::close);
+            subscriptions.clear();
+            latest = null;
+        }
+    }
+
+    // THE SLOT THE PROVIDERS READ - one volatile read per call
+    private final class LatestSnapshot {
+        private volatile ConfigurationSnapshot snapshot;
+
+        private LatestSnapshot() {
+            Set<String> namespaces = new LinkedHashSet<>();
+            configurables.forEach(c -> namespaces.add(c.getConfProps().getNameSpace()));
+            // SUBSCRIBE FIRST - a change made while taking the snapshot is then delivered afterwards
+            synchronized (subscriptions) {
+                namespaces.forEach(namespace -> subscriptions.add(
+                        configuration.subscribeNamespace(namespace, changes -> refresh())));
+            }
+            refresh();
+        }
+
+        private synchronized void refresh() {
+            snapshot = configuration.snapshot();
+        }
+    }
+
+    private void bindProviders(Configurable key, LatestSnapshot latest) {
+        Annotation annotation = key.getConfProps().getAnnotation();
+        bind(Key.get(String.class, annotation)).toProvider((Provider<String>) () -> latest.snapshot.string(key));
+        bind(Key.get(Integer.class, annotation)).toProvider((Provider<Integer>) () -> latest.snapshot.integer(key));
+        bind(Key.get(Long.class, annotation)).toProvider((Provider<Long>) () -> latest.snapshot.longing(key));
+        bind(Key.get(Float.class, annotation)).toProvider((Provider<Float>) () -> latest.snapshot.floating(key));
+        bind(Key.get(Double.class, annotation)).toProvider((Provider<Double>) () -> latest.snapshot.doubling(key));
+        bind(Key.get(Boolean.class, annotation)).toProvider((Provider<Boolean>) () -> latest.snapshot.booling(key));
+    }
+
+    // ONE TYPED BINDING AT MOST - a binding per type would multiply the bindings, and with them injector creation time
+    private void bindValue(Annotation annotation, String value, String typeOf) {
+        bindConstant().annotatedWith(annotation).to(value);
+        // SAME PARSING AS GUICE - a value that does not parse as the type is left to the converters of Guice.
+        // Parse before binding, a started binding without a target fails the injector
+        try {
+            if (isInt(typeOf)) {
+                bind(Key.get(Integer.class, annotation)).toInstance(Integer.parseInt(value));
+            } else if (isLong(typeOf)) {
+                bind(Key.get(Long.class, annotation)).toInstance(Long.parseLong(value));
+            } else if (isDouble(typeOf)) {
+                bind(Key.get(Double.class, annotation)).toInstance(Double.parseDouble(value));
+            } else if (isBoolean(typeOf) && isBoolean(value)) {
+                bind(Key.get(Boolean.class, annotation)).toInstance(Boolean.parseBoolean(value));
+            }
+        } catch (NumberFormatException e) {
+            // not of the type of the default value
+        }
+    }
+
+    private static boolean isInt(String value) {
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isLong(String value) {
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isDouble(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isBoolean(String value) {
+        return "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value);
+    }
+}
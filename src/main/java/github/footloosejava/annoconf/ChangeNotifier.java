@@ -0,0 +1,143 @@
+package github.footloosejava.annoconf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Collects changes of a configuration and delivers them to subscribers in batches on an executor.
+ * <p>
+ * Changes are coalesced per key until the next delivery: the first old value and the last new value are kept,
+ * and keys that end up with their original value are dropped. At most one delivery runs at a time,
+ * so every subscriber sees the batches in order.
+ */
+final class ChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile Executor executor = DefaultExecutor.INSTANCE;
+
+    // guarded by this
+    private Map<String, ConfigurationChange> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+
+    void executor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    /**
+     * @return true if there is anyone to notify. Callers can skip computing old values otherwise.
+     */
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    ConfigurationSubscription subscribeKey(String fullyQualifiedName, ConfigurationListener listener) {
+        return subscribe(fullyQualifiedName, false, listener);
+    }
+
+    ConfigurationSubscription subscribePrefix(String prefix, ConfigurationListener listener) {
+        return subscribe(prefix, true, listener);
+    }
+
+    private ConfigurationSubscription subscribe(String key, boolean prefix, ConfigurationListener listener) {
+        Subscription subscription = new Subscription(Objects.requireNonNull(key, "key"), prefix,
+                Objects.requireNonNull(listener, "listener"));
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    void changed(String fullyQualifiedName, String oldValue, String newValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return;
+        }
+        boolean schedule;
+        synchronized (this) {
+            ConfigurationChange previous = pending.get(fullyQualifiedName);
+            pending.put(fullyQualifiedName, new ConfigurationChange(fullyQualifiedName,
+                    previous == null ? oldValue : previous.oldValue(), newValue));
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    /**
+     * Reports every key whose value differs between the two snapshots.
+     */
+    void changed(ConfigurationSnapshot before, ConfigurationSnapshot after) {
+        before.forEachResolved((k, v) -> changed(k, v, after.stringFullyQualifiedName(k)));
+        after.forEachResolved((k, v) -> {
+            if (before.stringFullyQualifiedName(k) == null) {
+                changed(k, null, v);
+            }
+        });
+    }
+
+    private void deliver() {
+        Map<String, ConfigurationChange> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        try {
+            for (Subscription subscription : subscriptions) {
+                List<ConfigurationChange> changes = new ArrayList<>();
+                for (ConfigurationChange change : batch.values()) {
+                    if (!Objects.equals(change.oldValue(), change.newValue()) && subscription.matches(change.key())) {
+                        changes.add(change);
+                    }
+                }
+                if (!changes.isEmpty()) {
+                    try {
+                        subscription.listener.onChange(Collections.unmodifiableList(changes));
+                    } catch (RuntimeException e) {
+                        log.error("Exception in configuration listener: reason= {}", e.getMessage(), e);
+                    }
+                }
+            }
+        } finally {
+            boolean reschedule;
+            synchronized (this) {
+                reschedule = !pending.isEmpty();
+                scheduled = reschedule;
+            }
+            if (reschedule) {
+                executor.execute(this::deliver);
+            }
+        }
+    }
+
+    private static final class Subscription {
+        private final String key;
+        private final boolean prefix;
+        private final ConfigurationListener listener;
+
+        private Subscription(String key, boolean prefix, ConfigurationListener listener) {
+            this.key = key;
+            this.prefix = prefix;
+            this.listener = listener;
+        }
+
+        private boolean matches(String fullyQualifiedName) {
+            return prefix ? fullyQualifiedName.startsWith(key) : fullyQualifiedName.equals(key);
+        }
+    }
+
+    // one daemon thread for all configurations that do not set their own executor
+    private static final class DefaultExecutor {
+        private static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "annoconf-listeners");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -23,11 +23,13 @@ public @interface Conf {
 
         private final Class<? extends Configurable> type;
         private final String key;
+        private final int hashCode;
 
         public ConfAnnotation(Class<? extends Configurable> type, String key) {
             this.type = Objects.requireNonNull(type, "type");
             this.key = Objects.requireNonNull(key, "key");
-
+            // This is specified in java.lang.Annotation.
+            this.hashCode = ((127 * "type".hashCode()) ^ type.hashCode()) + ((127 * "key".hashCode()) ^ key.hashCode());
         }
 
         @Override
@@ -42,13 +44,16 @@ public @interface Conf {
 
         @Override
         public int hashCode() {
-            // This is specified in java.lang.Annotation.
-            return ((127 * "type".hashCode()) ^ type.hashCode()) + ((127 * "key".hashCode()) ^ key.hashCode());
+            return hashCode;
         }
 
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
+            if (o instanceof ConfAnnotation) {
+                ConfAnnotation other = (ConfAnnotation) o;
+                return hashCode == other.hashCode && type == other.type && key.equals(other.key);
+            }
             if (o instanceof Conf) {
                 Conf other = (Conf) o;
                 return type.equals(other.type()) && key.equals(other.key());
@@ -0,0 +1,114 @@
+package github.footloosejava.annoconf;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns every distinct set of properties a small integer id and one shared identity object.
+ * Properties are the same if their namespace, name, description, default value and annotation are equal.
+ * <p>
+ * {@link ConfigurableBuilder} interns itself when it is created, so its equality is an identity comparison and the id
+ * can index arrays. The identities are kept per owning class, the type of a {@link Conf} annotation or else the
+ * annotation type, and are released together with that class, so unloading a plugin also unloads its properties.
+ * Ids are not reused; properties interned again after their class was unloaded get a new id.
+ */
+public final class ConfPropsRegistry {
+
+    // VALUES LIVE AND DIE WITH THEIR CLASS - a class value is held by the class it is computed for
+    private static final ClassValue<Map<Identity, Identity>> identities = new ClassValue<Map<Identity, Identity>>() {
+        @Override
+        protected Map<Identity, Identity> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private ConfPropsRegistry() {
+    }
+
+    /**
+     * @param confProps the properties
+     * @return the id of the properties
+     */
+    public static int id(ConfProps confProps) {
+        if (confProps instanceof ConfigurableBuilder) {
+            return ((ConfigurableBuilder) confProps).getId();
+        }
+        return intern(confProps.getNameSpace(), confProps.getName(), Objects.toString(confProps.getDescription(), ""),
+                confProps.getDefaultValue(), confProps.getAnnotation()).id;
+    }
+
+    /**
+     * @return the number of ids handed out, every id is smaller
+     */
+    public static int size() {
+        return nextId.get();
+    }
+
+    static Identity intern(String namespace, String name, String description, String defaultValue, Annotation annotation) {
+        Identity identity = new Identity(namespace, name, description, defaultValue, annotation);
+        Map<Identity, Identity> owned = identities.get(owner(annotation));
+        Identity interned = owned.get(identity);
+        if (interned != null) {
+            return interned;
+        }
+        return owned.computeIfAbsent(identity, k -> {
+            k.id = nextId.getAndIncrement();
+            return k;
+        });
+    }
+
+    private static Class<?> owner(Annotation annotation) {
+        if (annotation instanceof Conf) {
+            return ((Conf) annotation).type();
+        }
+        return annotation.annotationType();
+    }
+
+    static final class Identity {
+        private final String namespace;
+        private final String name;
+        private final String description;
+        private final String defaultValue;
+        private final Annotation annotation;
+        private final int hashCode;
+        // set once when interned, before the identity is published by the map
+        private int id;
+
+        private Identity(String namespace, String name, String description, String defaultValue, Annotation annotation) {
+            this.namespace = namespace;
+            this.name = name;
+            this.description = description;
+            this.defaultValue = defaultValue;
+            this.annotation = annotation;
+            this.hashCode = Objects.hash(namespace, name, description, defaultValue, annotation);
+        }
+
+        int id() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o instanceof Identity) {
+                Identity that = (Identity) o;
+                return hashCode == that.hashCode &&
+                        namespace.equals(that.namespace) &&
+                        name.equals(that.name) &&
+                        description.equals(that.description) &&
+                        annotation.equals(that.annotation) &&
+                        Objects.equals(defaultValue, that.defaultValue);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package github.footloosejava.annoconf;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+/**
+ * An interned fully qualified name.
+ * <p>
+ * {@link #of(CharSequence)} finds an existing key without allocating, so a name assembled per request in a reused
+ * {@link StringBuilder}, e.g. with a tenant prefix, can be read with the {@code ConfigKey} overloads of
+ * {@link Configuration} without creating garbage. Only the first lookup of a name creates its key.
+ * <p>
+ * The intern table holds its keys weakly, like {@link String#intern()}: a key nobody refers to any more is released
+ * and created again on its next lookup. Keep keys of hot names, e.g. in constants, to look them up allocation free
+ * across garbage collections.
+ */
+public final class ConfigKey {
+
+    private static final Object lock = new Object();
+    private static final ReferenceQueue<ConfigKey> released = new ReferenceQueue<>();
+
+    // OPEN ADDRESSING TABLE - read without locking, inserted into and rebuilt under the lock, at most half full.
+    // Released keys stay in their slots until the next rebuild, so probing never stops early
+    private static volatile Ref[] table = new Ref[64];
+    private static int used;
+
+    private final String fullyQualifiedName;
+    private final int hash;
+
+    private ConfigKey(String fullyQualifiedName, int hash) {
+        this.fullyQualifiedName = fullyQualifiedName;
+        this.hash = hash;
+    }
+
+    /**
+     * @param fullyQualifiedName the name, its characters are copied only if the key does not exist yet
+     * @return the key
+     */
+    public static ConfigKey of(CharSequence fullyQualifiedName) {
+        Objects.requireNonNull(fullyQualifiedName, "fullyQualifiedName");
+        int h = hash(fullyQualifiedName);
+        ConfigKey key = find(table, fullyQualifiedName, h);
+        return key != null ? key : intern(fullyQualifiedName, h);
+    }
+
+    /**
+     * @param configurable the configurable
+     * @return the key of its fully qualified name
+     */
+    public static ConfigKey of(Configurable configurable) {
+        return of(configurable.getConfProps().getFullyQualifiedName());
+    }
+
+    // the hash of String, so a key hashes like its name
+    private static int hash(CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
+    }
+
+    private static int slot(int h, int mask) {
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static ConfigKey find(Ref[] t, CharSequence fullyQualifiedName, int h) {
+        int mask = t.length - 1;
+        Ref ref;
+        for (int i = slot(h, mask); (ref = t[i]) != null; i = (i + 1) & mask) {
+            if (ref.hash == h) {
+                ConfigKey key = ref.get();
+                if (key != null && key.fullyQualifiedName.contentEquals(fullyQualifiedName)) {
+                    return key;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static ConfigKey intern(CharSequence fullyQualifiedName, int h) {
+        synchronized (lock) {
+            Ref[] t = table;
+            ConfigKey key = find(t, fullyQualifiedName, h);
+            if (key != null) {
+                return key;
+            }
+            key = new ConfigKey(fullyQualifiedName.toString(), h);
+            if ((used + 1) * 2 > t.length) {
+                t = rebuild(t);
+            }
+            // the fields of a key are final, so a reader that finds it in the table sees them
+            insert(t, new Ref(key, released));
+            used++;
+            table = t;
+            return key;
+        }
+    }
+
+    // DROPS RELEASED KEYS - the new table is sized for the live keys, so it also shrinks
+    private static Ref[] rebuild(Ref[] t) {
+        while (released.poll() != null) {
+            // only drained, the rebuild below skips every released key
+        }
+        int live = 0;
+        for (Ref ref : t) {
+            if (ref != null && ref.get() != null) {
+                live++;
+            }
+        }
+        int capacity = Math.max(64, Integer.highestOneBit(Math.max(1, (live + 1) * 4 - 1)) << 1);
+        Ref[] rebuilt = new Ref[capacity];
+        for (Ref ref : t) {
+            if (ref != null && ref.get() != null) {
+                insert(rebuilt, ref);
+            }
+        }
+        used = live;
+        return rebuilt;
+    }
+
+    private static void insert(Ref[] t, Ref ref) {
+        int mask = t.length - 1;
+        int i = slot(ref.hash, mask);
+        while (t[i] != null) {
+            i = (i + 1) & mask;
+        }
+        t[i] = ref;
+    }
+
+    public String getFullyQualifiedName() {
+        return fullyQualifiedName;
+    }
+
+    /**
+     * Keys are interned, so equal keys are the same instance.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return fullyQualifiedName;
+    }
+
+    private static final class Ref extends WeakReference<ConfigKey> {
+        private final int hash;
+
+        private Ref(ConfigKey key, ReferenceQueue<ConfigKey> queue) {
+            super(key, queue);
+            this.hash = key.hash;
+        }
+    }
+}
@@ -14,6 +14,9 @@ public class ConfigurableBuilder implements ConfProps, Configurable {
     private final String fullyQualifiedName;
     private final Annotation annotation;
 
+    // INTERNED IDENTITY - equal properties share it, see ConfPropsRegistry
+    private final ConfPropsRegistry.Identity identity;
+
     /**
      * @param namespace    the namespace
      * @param name         the name (the part after the last namespace separator)
@@ -33,6 +36,7 @@ public class ConfigurableBuilder implements ConfProps, Configurable {
         this.defaultValue = defaultValue;
         this.fullyQualifiedName = this.namespace.isEmpty() ? this.name : this.namespace + "-" + this.name;
         this.annotation = Objects.requireNonNull(annotation, "Annotation cannot be null");
+        this.identity = ConfPropsRegistry.intern(this.namespace, this.name, this.description, defaultValue, annotation);
     }
 
     public static ConfBuilder ofEnumAnnotation(Function<String, Annotation> annotationMaker, Class classNameSpace) {
@@ -54,6 +58,9 @@ public class ConfigurableBuilder implements ConfProps, Configurable {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
+        if (o instanceof ConfigurableBuilder) {
+            return identity == ((ConfigurableBuilder) o).identity;
+        }
         if (o instanceof ConfProps) {
             ConfProps that = (ConfProps) o;
             return namespace.equals(that.getNameSpace()) &&
@@ -67,7 +74,14 @@ public class ConfigurableBuilder implements ConfProps, Configurable {
 
     @Override
     public final int hashCode() {
-        return Objects.hash(getNameSpace(), getName(), getDescription(), getDefaultValue(), getAnnotation());
+        return identity.hashCode();
+    }
+
+    /**
+     * @return the interned id of these properties, see {@link ConfPropsRegistry}
+     */
+    public final int getId() {
+        return identity.id();
     }
 
     @Override
@@ -10,8 +10,18 @@ public interface Configuration {
 
     Configuration putDefaults(ConfProps[] properties);
 
+    /**
+     * Makes this configuration immutable. Implementations may switch their read path to a {@link #snapshot()}.
+     */
     void freeze();
 
+    /**
+     * @return an immutable, fully resolved copy of the current state of this configuration
+     */
+    default ConfigurationSnapshot snapshot() {
+        return ConfigurationSnapshot.copyOf(this);
+    }
+
     Set<String> keys(Configurable[] includeKeys, Configurable[]... more);
 
     Set<String> keys(List<Configurable> includeKeys);
@@ -24,6 +34,38 @@ public interface Configuration {
 
     void putFullyQualifiedName(String fullyQualifiedName, String value);
 
+    /**
+     * Stages many puts and removals to apply them at once. By default the changes are applied one by one with
+     * {@link #putFullyQualifiedName(String, String)}; implementations that can publish them atomically override this.
+     *
+     * @return a new batch for this configuration
+     */
+    default ConfigurationBatch batch() {
+        return new ConfigurationBatch(values -> values.forEach(this::putFullyQualifiedName));
+    }
+
+    /**
+     * Subscribes to changes of a single key, whether they come from puts, namespace mappings or reloads.
+     * Changes are delivered asynchronously and in batches.
+     *
+     * @param key      the key
+     * @param listener the listener
+     * @return the subscription, close it to unsubscribe
+     */
+    default ConfigurationSubscription subscribe(Configurable key, ConfigurationListener listener) {
+        return subscribeFullyQualifiedName(key.getConfProps().getFullyQualifiedName(), listener);
+    }
+
+    ConfigurationSubscription subscribeFullyQualifiedName(String fullyQualifiedName, ConfigurationListener listener);
+
+    /**
+     * @param namespacePrefix matched against the start of every fully qualified name,
+     *                        so a package name subscribes to all of its classes
+     * @param listener        the listener
+     * @return the subscription, close it to unsubscribe
+     */
+    ConfigurationSubscription subscribeNamespace(String namespacePrefix, ConfigurationListener listener);
+
     /**
      * Provides an iteration over all keys with values.
      *
@@ -31,6 +73,36 @@ public interface Configuration {
      */
     void forEach(BiConsumer<String, String> consumer);
 
+    /**
+     * Iterates the keys with values whose fully qualified name starts with the prefix, in key order.
+     * The configurations of this package keep their keys sorted, so the cost is proportional to the matching keys
+     * rather than to all keys. By default all keys are filtered.
+     *
+     * @param prefix   matched against the start of every fully qualified name, e.g. a namespace or a package
+     * @param consumer the consumer
+     */
+    default void forEachWithPrefix(String prefix, BiConsumer<String, String> consumer) {
+        Objects.requireNonNull(prefix, "prefix");
+        SortedMap<String, String> matching = new TreeMap<>();
+        forEach((k, v) -> {
+            if (k.startsWith(prefix)) {
+                matching.put(k, v);
+            }
+        });
+        matching.forEach(consumer);
+    }
+
+    /**
+     * @param prefix matched against the start of every fully qualified name, so a package name returns the keys
+     *               of all of its classes
+     * @return an immutable copy of the keys with values under the prefix, sorted by key
+     */
+    default SortedMap<String, String> namespace(String prefix) {
+        SortedMap<String, String> values = new TreeMap<>();
+        forEachWithPrefix(prefix, values::put);
+        return Collections.unmodifiableSortedMap(values);
+    }
+
     default Stream<Configurable.ConfigurableValue> forAllNonNull(List<Configurable> keys) {
         return keys.stream().map(k -> {
             String value = string(k);
@@ -70,6 +142,8 @@ public interface Configuration {
 
     int integer(Configurable k);
 
+    long longing(Configurable k);
+
     boolean booling(Configurable k);
 
 
@@ -82,6 +156,60 @@ public interface Configuration {
 
     int integerFullyQualifiedName(String k);
 
+    long longingFullyQualifiedName(String k);
+
     boolean boolingFullyQualifiedName(String k);
 
+    // FROM INTERNED KEY - see ConfigKey for reads without allocation
+    default String string(ConfigKey k) {
+        return stringFullyQualifiedName(k.getFullyQualifiedName());
+    }
+
+    default float floating(ConfigKey k) {
+        return floatingFullyQualifiedName(k.getFullyQualifiedName());
+    }
+
+    default double doubling(ConfigKey k) {
+        return doublingFullyQualifiedName(k.getFullyQualifiedName());
+    }
+
+    default int integer(ConfigKey k) {
+        return integerFullyQualifiedName(k.getFullyQualifiedName());
+    }
+
+    default long longing(ConfigKey k) {
+        return longingFullyQualifiedName(k.getFullyQualifiedName());
+    }
+
+    default boolean booling(ConfigKey k) {
+        return boolingFullyQualifiedName(k.getFullyQualifiedName());
+    }
+
+    // CONVERTED
+    /**
+     * @param k         the key
+     * @param converter the converter, keep it in a constant
+     * @return the converted value, cached in {@link ConversionCache#shared()} by value, or null if the key has no value
+     */
+    default <T> T get(Configurable k, Converter<T> converter) {
+        return getFullyQualifiedName(k.getConfProps().getFullyQualifiedName(), converter);
+    }
+
+    /**
+     * @param k         the interned fully qualified name
+     * @param converter the converter, keep it in a constant
+     * @return the converted value, cached in {@link ConversionCache#shared()} by value, or null if the name has no value
+     */
+    default <T> T get(ConfigKey k, Converter<T> converter) {
+        return getFullyQualifiedName(k.getFullyQualifiedName(), converter);
+    }
+
+    /**
+     * @param k         the fully qualified name
+     * @param converter the converter, keep it in a constant
+     * @return the converted value, cached in {@link ConversionCache#shared()} by value, or null if the name has no value
+     */
+    default <T> T getFullyQualifiedName(String k, Converter<T> converter) {
+        return ConversionCache.shared().get(stringFullyQualifiedName(k), converter);
+    }
 }
@@ -0,0 +1,85 @@
+package github.footloosejava.annoconf;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Stages puts and removals and applies them together with {@link #apply()}.
+ * A later change of the same name replaces an earlier one. Whether readers can observe a partially applied batch
+ * depends on the configuration, see {@link Configuration#batch()}.
+ */
+public final class ConfigurationBatch {
+
+    private final Map<String, String> changes = new LinkedHashMap<>();
+    private final Consumer<Map<String, String>> applier;
+    private boolean applied;
+
+    /**
+     * @param applier applies the staged values by fully qualified name, a null value is a removal
+     */
+    public ConfigurationBatch(Consumer<Map<String, String>> applier) {
+        this.applier = Objects.requireNonNull(applier, "applier");
+    }
+
+    /**
+     * @param key   the key
+     * @param value the value, null removes the value
+     * @return this batch
+     */
+    public ConfigurationBatch put(Configurable key, String value) {
+        return putFullyQualifiedName(key.getConfProps().getFullyQualifiedName(), value);
+    }
+
+    /**
+     * @param fullyQualifiedName the name
+     * @param value              the value, null removes the value
+     * @return this batch
+     */
+    public ConfigurationBatch putFullyQualifiedName(String fullyQualifiedName, String value) {
+        checkNotApplied();
+        changes.put(Objects.requireNonNull(fullyQualifiedName, "fullyQualifiedName"), value);
+        return this;
+    }
+
+    /**
+     * @param values the values by fully qualified name, a null value removes the value
+     * @return this batch
+     */
+    public ConfigurationBatch putAll(Map<String, String> values) {
+        values.forEach(this::putFullyQualifiedName);
+        return this;
+    }
+
+    public ConfigurationBatch remove(Configurable key) {
+        return put(key, null);
+    }
+
+    public ConfigurationBatch removeFullyQualifiedName(String fullyQualifiedName) {
+        return putFullyQualifiedName(fullyQualifiedName, null);
+    }
+
+    /**
+     * @return the number of staged names
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Applies the staged changes. A batch can only be applied once.
+     */
+    public void apply() {
+        checkNotApplied();
+        applied = true;
+        applier.accept(Collections.unmodifiableMap(changes));
+    }
+
+    private void checkNotApplied() {
+        if (applied) {
+            throw new IllegalStateException("This batch has already been applied.");
+        }
+    }
+}
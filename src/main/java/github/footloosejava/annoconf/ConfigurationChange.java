@@ -0,0 +1,42 @@
+package github.footloosejava.annoconf;
+
+import java.util.Objects;
+
+public final class ConfigurationChange {
+
+    private final String key;
+    private final String oldValue;
+    private final String newValue;
+
+    public ConfigurationChange(String key, String oldValue, String newValue) {
+        this.key = Objects.requireNonNull(key, "key");
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * @return the fully qualified name
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * @return the value before the change or null
+     */
+    public String oldValue() {
+        return oldValue;
+    }
+
+    /**
+     * @return the value after the change or null if the key no longer has a value
+     */
+    public String newValue() {
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return key + ": '" + oldValue + "' -> '" + newValue + "'";
+    }
+}
@@ -0,0 +1,127 @@
+package github.footloosejava.annoconf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hands out {@link MethodHandle}s that return configuration values as constants, so the JIT can fold them.
+ * <p>
+ * Keep a handle in a static final field and call it with invokeExact:
+ * <pre>
+ * static final MethodHandle PORT = ConfigurationHandles.freeze(configuration).constant(Settings.PORT, int.class);
+ * ...
+ * int port = (int) PORT.invokeExact();
+ * </pre>
+ * A {@link #constant(Configurable, Class)} handle is bound to the value at the time it is created and never changes.
+ * A {@link #relinking(Configurable, Class)} call site is relinked when the configuration reports a change of its key,
+ * e.g. after a reload; compiled code that inlined the old value is deoptimized.
+ * Supported types are String, int, long, float, double and boolean.
+ */
+public final class ConfigurationHandles implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigurationHandles.class);
+
+    private final Configuration configuration;
+    private final List<ConfigurationSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private ConfigurationHandles(Configuration configuration) {
+        this.configuration = Objects.requireNonNull(configuration, "configuration");
+    }
+
+    /**
+     * @param configuration the configuration, which is not frozen
+     * @return the handles
+     */
+    public static ConfigurationHandles of(Configuration configuration) {
+        return new ConfigurationHandles(configuration);
+    }
+
+    /**
+     * Freezes the configuration, so puts can no longer make constants differ from the values it reports.
+     * A frozen configuration can still be reloaded from its source, e.g. {@link INIConfiguration#reload()}, and
+     * {@link #constant(Configurable, Class)} handles do not see reloads: use
+     * {@link #relinking(Configurable, Class)} for values of a reloadable source.
+     *
+     * @param configuration the configuration
+     * @return the handles
+     */
+    public static ConfigurationHandles freeze(Configuration configuration) {
+        configuration.freeze();
+        return new ConfigurationHandles(configuration);
+    }
+
+    /**
+     * @param key  the key
+     * @param type the return type of the handle
+     * @return a handle without arguments that returns the current value
+     * @throws IllegalArgumentException if the type is not supported
+     * @throws NumberFormatException    if the value cannot be parsed
+     */
+    public MethodHandle constant(Configurable key, Class<?> type) {
+        return new ConstantCallSite(MethodHandles.constant(type, value(key, type))).dynamicInvoker();
+    }
+
+    /**
+     * @param key  the key
+     * @param type the return type of the call site
+     * @return a call site that returns the value and is relinked on every change of the key.
+     * A value that can no longer be parsed is logged and the call site keeps the previous value.
+     */
+    public MutableCallSite relinking(Configurable key, Class<?> type) {
+        MutableCallSite site = new MutableCallSite(MethodHandles.constant(type, value(key, type)));
+        // SUBSCRIBE FIRST - then a change made before the first link is relinked afterwards
+        subscriptions.add(configuration.subscribe(key, changes -> relink(site, key, type)));
+        relink(site, key, type);
+        return site;
+    }
+
+    // reads the value under the lock, so concurrent relinks cannot install an older value last
+    private void relink(MutableCallSite site, Configurable key, Class<?> type) {
+        synchronized (site) {
+            Object value;
+            try {
+                value = value(key, type);
+            } catch (NumberFormatException e) {
+                log.error("Cannot relink '{}', keeping the previous value: reason= {}",
+                        key.getConfProps().getFullyQualifiedName(), e.getMessage());
+                return;
+            }
+            site.setTarget(MethodHandles.constant(type, value));
+            MutableCallSite.syncAll(new MutableCallSite[]{site});
+        }
+    }
+
+    private Object value(Configurable key, Class<?> type) {
+        if (type == String.class) {
+            return configuration.string(key);
+        } else if (type == int.class) {
+            return configuration.integer(key);
+        } else if (type == long.class) {
+            return configuration.longing(key);
+        } else if (type == float.class) {
+            return configuration.floating(key);
+        } else if (type == double.class) {
+            return configuration.doubling(key);
+        } else if (type == boolean.class) {
+            return configuration.booling(key);
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type.getName());
+    }
+
+    /**
+     * Stops relinking. The call sites keep their last values.
+     */
+    @Override
+    public void close() {
+        subscriptions.forEach(ConfigurationSubscription::close);
+        subscriptions.clear();
+    }
+}
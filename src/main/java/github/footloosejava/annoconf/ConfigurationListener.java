@@ -0,0 +1,16 @@
+package github.footloosejava.annoconf;
+
+import java.util.List;
+
+/**
+ * Receives the changes of a subscription in batches.
+ * Changes made in quick succession are coalesced into one change per key.
+ */
+@FunctionalInterface
+public interface ConfigurationListener {
+
+    /**
+     * @param changes the changed keys, in the order they first changed. Never empty.
+     */
+    void onChange(List<ConfigurationChange> changes);
+}
@@ -0,0 +1,76 @@
+package github.footloosejava.annoconf;
+
+import java.util.Map;
+
+/**
+ * Receives instrumentation events of a configuration. All methods are called on the reading thread,
+ * so implementations must be thread safe and cheap, e.g. striped counters such as {@link java.util.concurrent.atomic.LongAdder}.
+ * <p>
+ * {@link #NONE} ignores everything and is the default. {@link JmxConfigurationMetrics} counts the events and
+ * exports them as a JMX MBean.
+ */
+public interface ConfigurationMetrics {
+
+    ConfigurationMetrics NONE = new ConfigurationMetrics() {
+    };
+
+    /**
+     * Where a read found its value.
+     */
+    enum Source {
+        /**
+         * a default or a programmatically set value
+         */
+        PROGRAMMATIC,
+        /**
+         * the INI file
+         */
+        INI,
+        /**
+         * the snapshot of a frozen configuration
+         */
+        SNAPSHOT,
+        /**
+         * no value
+         */
+        MISSING
+    }
+
+    /**
+     * A raw value was resolved.
+     *
+     * @param fullyQualifiedName the name
+     * @param source             where the value was found
+     */
+    default void read(String fullyQualifiedName, Source source) {
+    }
+
+    /**
+     * A typed value was read.
+     *
+     * @param fullyQualifiedName the name
+     * @param cached             true if the parsed value was cached, false if the raw value had to be resolved
+     */
+    default void typedRead(String fullyQualifiedName, boolean cached) {
+    }
+
+    /**
+     * A value could not be parsed by a typed read. The exception is still thrown to the caller.
+     *
+     * @param fullyQualifiedName the name
+     * @param value              the value that did not parse, may be null
+     */
+    default void parseFailure(String fullyQualifiedName, String value) {
+    }
+
+    /**
+     * The INI files were loaded.
+     *
+     * @param source         the files
+     * @param nanos          the duration of the load
+     * @param reload         false for the first load
+     * @param keysPerSection the number of keys in each section, empty for lazily loaded files
+     */
+    default void loaded(String source, long nanos, boolean reload, Map<String, Integer> keysPerSection) {
+    }
+}
@@ -0,0 +1,43 @@
+package github.footloosejava.annoconf;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link JmxConfigurationMetrics}.
+ */
+public interface ConfigurationMetricsMXBean {
+
+    long getReads();
+
+    long getProgrammaticReads();
+
+    long getIniReads();
+
+    long getSnapshotReads();
+
+    long getMissingReads();
+
+    long getTypedCacheHits();
+
+    long getTypedCacheMisses();
+
+    long getParseFailures();
+
+    long getLoads();
+
+    long getLastLoadMillis();
+
+    long getReloads();
+
+    long getLastReloadMillis();
+
+    /**
+     * @return the reads of each name, raw and typed, for a bounded number of names and the reads of all other names
+     * under {@link JmxConfigurationMetrics#OTHER_KEYS}
+     */
+    Map<String, Long> getReadsPerKey();
+
+    Map<String, Integer> getKeysPerSection();
+
+    void reset();
+}
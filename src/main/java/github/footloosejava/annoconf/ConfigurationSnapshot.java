@@ -0,0 +1,146 @@
+package github.footloosejava.annoconf;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable, fully resolved view of a configuration.
+ * <p>
+ * Defaults, INI values and programmatic overrides are merged once into a flat open-addressing table,
+ * so every lookup is a single hash probe on the fully qualified name with no string slicing.
+ * All mutating methods throw {@link UnsupportedOperationException}.
+ */
+public final class ConfigurationSnapshot extends ImmutableConfiguration {
+
+    // OPEN ADDRESSING TABLE - power of two sized, linear probing, at most half full
+    private final String[] tableKeys;
+    private final String[] tableValues;
+    private final int[] tableHashes;
+    private final int mask;
+
+    // THE KEYS REPORTED BY keys() AND forEach() - sorted
+    private final String[] listedKeys;
+    private final String[] listedValues;
+
+    /**
+     * @param resolved   every fully qualified name that resolves to a non null value
+     * @param listedKeys the keys that should be reported by {@link #keys(List)}, {@link #forEach(BiConsumer)}
+     *                   and {@link #allSettings()}. Keys without a resolved value are ignored.
+     */
+    ConfigurationSnapshot(Map<String, String> resolved, Collection<String> listedKeys) {
+        this(resolved, listedKeys, Integer.highestOneBit(Math.max(4, resolved.size() * 2 - 1)) << 1);
+    }
+
+    private ConfigurationSnapshot(Map<String, String> resolved, Collection<String> listedKeys, int capacity) {
+        super("This configuration is an immutable snapshot.", capacity);
+        this.tableKeys = new String[capacity];
+        this.tableValues = new String[capacity];
+        this.tableHashes = new int[capacity];
+        this.mask = capacity - 1;
+
+        resolved.forEach((key, value) -> {
+            if (value != null) {
+                int h = hash(key);
+                int i = h & mask;
+                while (tableKeys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                tableKeys[i] = key;
+                tableValues[i] = value;
+                tableHashes[i] = h;
+            }
+        });
+
+        TreeMap<String, String> listed = new TreeMap<>();
+        for (String key : listedKeys) {
+            String value = valueAt(indexOf(key));
+            if (value != null) {
+                listed.put(key, value);
+            }
+        }
+        this.listedKeys = listed.keySet().toArray(new String[0]);
+        this.listedValues = listed.values().toArray(new String[0]);
+    }
+
+    /**
+     * Resolves every key reported by {@link Configuration#forEach(BiConsumer)} of the given configuration.
+     *
+     * @param configuration the configuration to copy
+     * @return an immutable snapshot of the configuration
+     */
+    public static ConfigurationSnapshot copyOf(Configuration configuration) {
+        if (configuration instanceof ConfigurationSnapshot) {
+            return (ConfigurationSnapshot) configuration;
+        }
+        Map<String, String> resolved = new HashMap<>();
+        configuration.forEach(resolved::put);
+        return new ConfigurationSnapshot(resolved, resolved.keySet());
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    int indexOf(String fullyQualifiedName) {
+        int h = hash(fullyQualifiedName);
+        int i = h & mask;
+        String k;
+        while ((k = tableKeys[i]) != null) {
+            if (tableHashes[i] == h && fullyQualifiedName.equals(k)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    String valueAt(int slot) {
+        return slot < 0 ? null : tableValues[slot];
+    }
+
+    public int size() {
+        return listedKeys.length;
+    }
+
+    @Override
+    public ConfigurationSnapshot snapshot() {
+        return this;
+    }
+
+    @Override
+    public Set<String> keys(List<Configurable> includeKeys) {
+        Set<String> keys = new TreeSet<>(Arrays.asList(listedKeys));
+        includeKeys.forEach(it -> keys.add(it.getConfProps().getFullyQualifiedName()));
+        return keys;
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < listedKeys.length; i++) {
+            consumer.accept(listedKeys[i], listedValues[i]);
+        }
+    }
+
+    @Override
+    public void forEachWithPrefix(String prefix, BiConsumer<String, String> consumer) {
+        // THE MATCHING KEYS ARE ONE RANGE OF THE SORTED KEYS - starting at the insertion point of the prefix
+        int i = Arrays.binarySearch(listedKeys, Objects.requireNonNull(prefix, "prefix"));
+        for (i = i < 0 ? -i - 1 : i; i < listedKeys.length && listedKeys[i].startsWith(prefix); i++) {
+            consumer.accept(listedKeys[i], listedValues[i]);
+        }
+    }
+
+    /**
+     * Iterates every resolved name, including those not reported by {@link #forEach(BiConsumer)}.
+     */
+    void forEachResolved(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < tableKeys.length; i++) {
+            if (tableKeys[i] != null) {
+                consumer.accept(tableKeys[i], tableValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package github.footloosejava.annoconf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A source of values by fully qualified name, read once when it is loaded into a {@link LayeredConfiguration}.
+ * The sources of a layer are merged into the resolved index of the configuration, so reads never consult them.
+ */
+@FunctionalInterface
+public interface ConfigurationSource {
+
+    /**
+     * @return the values by fully qualified name
+     * @throws IOException if the source cannot be read
+     */
+    Map<String, String> load() throws IOException;
+
+    /**
+     * A properties file whose keys are fully qualified names, read as UTF-8. A missing file has no values.
+     *
+     * @param file the file
+     * @return the source
+     */
+    static ConfigurationSource properties(Path file) {
+        Objects.requireNonNull(file, "file");
+        return () -> {
+            Map<String, String> values = new HashMap<>();
+            if (Files.exists(file)) {
+                Properties properties = new Properties();
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+                properties.stringPropertyNames().forEach(k -> values.put(k, properties.getProperty(k)));
+            }
+            return values;
+        };
+    }
+
+    /**
+     * System properties whose names start with the prefix, the rest of the name is the fully qualified name:
+     * with the prefix "app." the property -Dapp.usage.SampleClass-FOO=1 sets usage.SampleClass-FOO.
+     *
+     * @param prefix the prefix, may be empty
+     * @return the source
+     */
+    static ConfigurationSource systemProperties(String prefix) {
+        Objects.requireNonNull(prefix, "prefix");
+        return () -> {
+            Map<String, String> values = new HashMap<>();
+            Properties properties = System.getProperties();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(prefix) && name.length() > prefix.length()) {
+                    values.put(name.substring(prefix.length()), properties.getProperty(name));
+                }
+            }
+            return values;
+        };
+    }
+
+    /**
+     * Environment variables of known Configurables. Environment variable names cannot hold the fully qualified name,
+     * so the name of a key is the prefix followed by its fully qualified name in upper case with every character
+     * that is not a letter or digit replaced by '_': with the prefix "APP_" the key usage.SampleClass-FOO is read
+     * from APP_USAGE_SAMPLECLASS_FOO.
+     *
+     * @param prefix        the prefix, may be empty
+     * @param configurables the keys to look up
+     * @return the source
+     */
+    static ConfigurationSource environment(String prefix, Configurable[]... configurables) {
+        return environment(prefix, System.getenv(), configurables);
+    }
+
+    static ConfigurationSource environment(String prefix, Map<String, String> environment, Configurable[]... configurables) {
+        Objects.requireNonNull(prefix, "prefix");
+        List<String> names = new ArrayList<>();
+        for (Configurable[] ca : configurables) {
+            if (ca != null) {
+                for (Configurable c : ca) {
+                    names.add(c.getConfProps().getFullyQualifiedName());
+                }
+            }
+        }
+        return () -> {
+            Map<String, String> values = new HashMap<>();
+            for (String fullyQualifiedName : names) {
+                String value = environment.get(environmentName(prefix, fullyQualifiedName));
+                if (value != null) {
+                    values.put(fullyQualifiedName, value);
+                }
+            }
+            return values;
+        };
+    }
+
+    /**
+     * @param prefix             the prefix
+     * @param fullyQualifiedName the fully qualified name
+     * @return the name of the environment variable of the key
+     */
+    static String environmentName(String prefix, String fullyQualifiedName) {
+        StringBuilder sb = new StringBuilder(prefix.length() + fullyQualifiedName.length()).append(prefix);
+        for (int i = 0; i < fullyQualifiedName.length(); i++) {
+            char c = fullyQualifiedName.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) ? Character.toUpperCase(c) : '_');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package github.footloosejava.annoconf;
+
+/**
+ * Returned by the subscribe methods of {@link Configuration}. Closing it stops the delivery of changes.
+ */
+@FunctionalInterface
+public interface ConfigurationSubscription extends AutoCloseable {
+
+    ConfigurationSubscription NONE = () -> {
+    };
+
+    @Override
+    void close();
+}
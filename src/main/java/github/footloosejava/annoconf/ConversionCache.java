@@ -0,0 +1,185 @@
+package github.footloosejava.annoconf;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converted values, one per raw value and converter.
+ * <p>
+ * A read of a raw value converted before returns the cached result without locking or allocating,
+ * so a conversion runs once per distinct value. The cache is bounded by an estimated weight in bytes,
+ * derived from the length of the raw value and from {@link Converter#weigh(String, Object)} of the result.
+ * Above the bound the least recently read entries are evicted until a quarter of the bound is free again,
+ * which is also how the results of values no longer read leave the cache.
+ * <p>
+ * Results only depend on the raw value, not on the name or configuration it was read from, so one cache serves
+ * many configurations: overlays that give a name different values each hit their own entry, and those that share
+ * a value share its result. {@link #shared()} is used by {@link Configuration#get(Configurable, Converter)}.
+ */
+public final class ConversionCache {
+
+    // one converter per enum type, so its results are cached under one identity
+    static final ClassValue<Converter<?>> ENUM_CONVERTERS = new ClassValue<Converter<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected Converter<?> computeValue(Class<?> type) {
+            return value -> Enum.valueOf((Class) type, value.trim());
+        }
+    };
+
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private static final ConversionCache SHARED = new ConversionCache(Long.getLong("annoconf.conversionCacheBytes", 4L << 20));
+
+    private final long maxWeight;
+    private final AtomicLong weight = new AtomicLong();
+    // LOGICAL CLOCK - advanced per conversion, so entries read between two conversions are equally recent
+    private final AtomicLong clock = new AtomicLong();
+    // BY CONVERTER THEN VALUE - no key object is built per read
+    private final Map<Converter<?>, ByValue> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+
+    /**
+     * @param maxWeight the bound of the estimated weight of all entries in bytes
+     */
+    public ConversionCache(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @return the cache of all configurations, bounded by the system property 'annoconf.conversionCacheBytes',
+     * 4 MiB by default
+     */
+    public static ConversionCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param value     the raw value
+     * @param converter the converter
+     * @return the converted value or null if the value is null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String value, Converter<T> converter) {
+        if (value == null) {
+            return null;
+        }
+        ByValue byValue = entries.get(converter);
+        if (byValue == null) {
+            byValue = entries.computeIfAbsent(Objects.requireNonNull(converter, "converter"), c -> new ByValue());
+        }
+        Entry entry = byValue.get(value);
+        if (entry != null) {
+            // A HIT ONLY WRITES ONCE PER TICK - a plain write, a lost or late update only makes the order approximate
+            long now = clock.get();
+            if (entry.touched != now) {
+                entry.touched = now;
+            }
+            return (T) entry.result;
+        }
+        T result = converter.convert(value);
+        Entry next = new Entry(byValue, value, result, ENTRY_OVERHEAD + 2L * value.length() + converter.weigh(value, result),
+                clock.incrementAndGet());
+        Entry previous = byValue.put(value, next);
+        if (weight.addAndGet(next.weight - (previous == null ? 0 : previous.weight)) > maxWeight) {
+            evict();
+        }
+        // PRUNED MEANWHILE - the map is dropped from the cache, so the entry is not kept
+        if (byValue.retired) {
+            remove(next);
+        }
+        return result;
+    }
+
+    /**
+     * @return the estimated weight of all entries in bytes
+     */
+    public long weight() {
+        return weight.get();
+    }
+
+    public void clear() {
+        synchronized (evictionLock) {
+            entries.values().forEach(byValue -> byValue.values().forEach(this::remove));
+            prune();
+        }
+    }
+
+    // LEAST RECENTLY READ FIRST, BY TICK - sorting all entries is rare, it frees a quarter of the bound
+    private void evict() {
+        synchronized (evictionLock) {
+            if (weight.get() <= maxWeight) {
+                return;
+            }
+            List<Entry> candidates = new ArrayList<>();
+            entries.values().forEach(byValue -> candidates.addAll(byValue.values()));
+            candidates.sort(Comparator.comparingLong(entry -> entry.touched));
+            long target = maxWeight - maxWeight / 4;
+            for (Entry entry : candidates) {
+                if (weight.get() <= target) {
+                    break;
+                }
+                remove(entry);
+            }
+            prune();
+        }
+    }
+
+    // DROPS THE MAPS OF CONVERTERS WITHOUT ENTRIES - converters that are not read any more are not kept.
+    // A map is retired before it is found empty, and a read puts before it checks for retirement,
+    // so a read either sees the retirement or the pruning sees its entry
+    private void prune() {
+        entries.values().removeIf(byValue -> {
+            if (!byValue.isEmpty()) {
+                return false;
+            }
+            byValue.retired = true;
+            if (byValue.isEmpty()) {
+                return true;
+            }
+            byValue.retired = false;
+            return false;
+        });
+    }
+
+    /**
+     * @return the number of converters with entries
+     */
+    int converters() {
+        return entries.size();
+    }
+
+    private void remove(Entry entry) {
+        if (entry.owner.remove(entry.value, entry)) {
+            weight.addAndGet(-entry.weight);
+        }
+    }
+
+    private static final class ByValue extends ConcurrentHashMap<String, Entry> {
+        private volatile boolean retired;
+    }
+
+    private static final class Entry {
+        private final Map<String, Entry> owner;
+        private final String value;
+        private final Object result;
+        private final long weight;
+        private long touched;
+
+        private Entry(Map<String, Entry> owner, String value, Object result, long weight, long touched) {
+            this.owner = owner;
+            this.value = value;
+            this.result = result;
+            this.weight = weight;
+            this.touched = touched;
+        }
+    }
+}
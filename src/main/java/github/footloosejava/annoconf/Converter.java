@@ -0,0 +1,91 @@
+package github.footloosejava.annoconf;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToLongBiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Converts a configuration value into another type, see {@link Configuration#get(Configurable, Converter)}.
+ * <p>
+ * Results are cached per converter instance, so keep converters in constants rather than creating one per read.
+ * A converter must not depend on anything but the value. The cache is bounded by weight, so a converter whose results
+ * are large compared to their value should estimate them with {@link #weigh(String, Object)}, see
+ * {@link #weighed(Converter, ToLongBiFunction)}.
+ *
+ * @param <T> the type of the converted value
+ */
+@FunctionalInterface
+public interface Converter<T> {
+
+    /**
+     * An ISO-8601 duration, e.g. 'PT30S'.
+     */
+    Converter<Duration> DURATION = weighed(Duration::parse, (value, duration) -> 24);
+
+    // a compiled pattern holds a node per element and a copy of the pattern
+    Converter<Pattern> PATTERN = weighed(Pattern::compile, (value, pattern) -> 80 + 40L * value.length());
+
+    /**
+     * The values between commas, trimmed and without empty values.
+     */
+    Converter<List<String>> LIST = weighed(value -> {
+        List<String> values = new ArrayList<>();
+        for (String v : value.split(",")) {
+            String trimmed = v.trim();
+            if (!trimmed.isEmpty()) {
+                values.add(trimmed);
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }, (value, values) -> 40 + 48L * values.size() + 2L * value.length());
+
+    /**
+     * @param value the value, never null
+     * @return the converted value
+     * @throws RuntimeException if the value cannot be converted, nothing is cached then
+     */
+    T convert(String value);
+
+    /**
+     * @param value  the value
+     * @param result the result converted from the value
+     * @return the estimated size of the result in bytes, by default that of a copy of the value
+     */
+    default long weigh(String value, T result) {
+        return 40 + 2L * value.length();
+    }
+
+    /**
+     * @param converter the converter
+     * @param weigher   estimates the size of a result in bytes, see {@link #weigh(String, Object)}
+     * @return the converter with the weigher
+     */
+    static <T> Converter<T> weighed(Converter<T> converter, ToLongBiFunction<String, ? super T> weigher) {
+        Objects.requireNonNull(converter, "converter");
+        Objects.requireNonNull(weigher, "weigher");
+        return new Converter<T>() {
+            @Override
+            public T convert(String value) {
+                return converter.convert(value);
+            }
+
+            @Override
+            public long weigh(String value, T result) {
+                return weigher.applyAsLong(value, result);
+            }
+        };
+    }
+
+    /**
+     * @param type the enum type
+     * @return the converter of the enum constant with the trimmed value as name, the same instance for every call
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Enum<E>> Converter<E> enumOf(Class<E> type) {
+        return (Converter<E>) ConversionCache.ENUM_CONVERTERS.get(type);
+    }
+}
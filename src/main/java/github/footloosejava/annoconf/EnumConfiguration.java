@@ -0,0 +1,135 @@
+package github.footloosejava.annoconf;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A view of a {@link Configuration} for an enum of Configurables where every value is resolved into an array
+ * indexed by {@link Enum#ordinal()}. Reads are an array load instead of a fully qualified name lookup.
+ * <p>
+ * Values are resolved through the backing configuration, so its override precedence is kept.
+ * The view subscribes to the namespaces of the enum and is refreshed when the backing configuration reports a change.
+ * Changes are delivered asynchronously; call {@link #refresh()} to see a change immediately.
+ * Close the view to unsubscribe.
+ *
+ * @param <E> the enum type
+ */
+public final class EnumConfiguration<E extends Enum<E> & Configurable> implements AutoCloseable {
+
+    private final Class<E> type;
+    private final Configuration configuration;
+    private final E[] constants;
+    private final List<ConfigurationSubscription> subscriptions = new ArrayList<>();
+
+    private volatile Resolved resolved;
+
+    private EnumConfiguration(Class<E> type, Configuration configuration) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.configuration = Objects.requireNonNull(configuration, "configuration");
+        this.constants = type.getEnumConstants();
+        Set<String> namespaces = new LinkedHashSet<>();
+        for (E constant : constants) {
+            namespaces.add(constant.getConfProps().getNameSpace());
+        }
+        // SUBSCRIBE FIRST - a change made while resolving is then delivered afterwards
+        namespaces.forEach(namespace -> subscriptions.add(configuration.subscribeNamespace(namespace, changes -> refresh())));
+        refresh();
+    }
+
+    /**
+     * @param configuration a configuration that already holds the defaults of the enum
+     * @param type          the enum type
+     * @param <E>           the enum type
+     * @return the view
+     */
+    public static <E extends Enum<E> & Configurable> EnumConfiguration<E> of(Configuration configuration, Class<E> type) {
+        return new EnumConfiguration<>(type, configuration);
+    }
+
+    /**
+     * Loads the defaults of every enum constant with {@link Configuration#putDefaults(Configurable[])}
+     * before the view is resolved.
+     *
+     * @param configuration the configuration
+     * @param type          the enum type
+     * @param <E>           the enum type
+     * @return the view
+     */
+    public static <E extends Enum<E> & Configurable> EnumConfiguration<E> withDefaults(Configuration configuration, Class<E> type) {
+        configuration.putDefaults(type.getEnumConstants());
+        return new EnumConfiguration<>(type, configuration);
+    }
+
+    /**
+     * Resolves all values again from the backing configuration. Synchronized with the refreshes of the change
+     * subscription, so the values resolved last are the ones published.
+     */
+    public synchronized void refresh() {
+        String[] values = new String[constants.length];
+        for (E constant : constants) {
+            values[constant.ordinal()] = configuration.string(constant);
+        }
+        resolved = new Resolved(values);
+    }
+
+    @Override
+    public void close() {
+        subscriptions.forEach(ConfigurationSubscription::close);
+    }
+
+    public Class<E> type() {
+        return type;
+    }
+
+    public Configuration configuration() {
+        return configuration;
+    }
+
+    public String string(E key) {
+        return resolved.values[key.ordinal()];
+    }
+
+    public float floating(E key) {
+        Resolved r = resolved;
+        int slot = key.ordinal();
+        return r.typed.floating(slot, r.values[slot]);
+    }
+
+    public double doubling(E key) {
+        Resolved r = resolved;
+        int slot = key.ordinal();
+        return r.typed.doubling(slot, r.values[slot]);
+    }
+
+    public int integer(E key) {
+        Resolved r = resolved;
+        int slot = key.ordinal();
+        return r.typed.integer(slot, r.values[slot]);
+    }
+
+    public long longing(E key) {
+        Resolved r = resolved;
+        int slot = key.ordinal();
+        return r.typed.longing(slot, r.values[slot]);
+    }
+
+    public boolean booling(E key) {
+        Resolved r = resolved;
+        int slot = key.ordinal();
+        return r.typed.booling(slot, r.values[slot]);
+    }
+
+    // values and their parsed forms are swapped together
+    private static final class Resolved {
+        private final String[] values;
+        private final TypedValueCache typed;
+
+        private Resolved(String[] values) {
+            this.values = values;
+            this.typed = new TypedValueCache(values.length);
+        }
+    }
+}
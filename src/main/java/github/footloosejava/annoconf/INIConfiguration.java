@@ -1,19 +1,30 @@
 package github.footloosejava.annoconf;
 
 import org.apache.commons.lang3.StringUtils;
-import org.ini4j.Ini;
-import org.ini4j.IniPreferences;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
-import java.util.prefs.BackingStoreException;
-import java.util.prefs.Preferences;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -25,14 +36,44 @@ public class INIConfiguration implements Configuration {
     private static final Logger log = LoggerFactory.getLogger(INIConfiguration.class);
 
     private static final String DEFAULT_NAMESPACE_SEPARATOR = "-";
+    private static final int MAX_TYPED_SLOTS = 1 << 16;
+    private static final int MAX_ROUTES = 1 << 16;
 
-    private final Map<String, String> conf = new ConcurrentHashMap<>();
-    private final Map<String, String> namespaceToINISection = Collections.synchronizedMap(new LinkedHashMap<>());
+    // CHANGED UNDER THE WRITE LOCK - a single put changes the map, a batch replaces it
+    private volatile Map<String, String> conf = new ConcurrentHashMap<>();
+    // COPY ON WRITE - replaced under the write lock, read without locking
+    private volatile Map<String, String> namespaceToINISection = Collections.emptyMap();
     private final String namespaceSeparator;
-    private final Ini ini;
-    private final Preferences prefs;
+    // THE INI FILES - one file, fragments in order of precedence, or the *.ini files of a directory
+    private final List<File> files;
+    private final File directory;
+    // a list of files or a directory, even of one file: missing files are skipped rather than failing the load
+    private final boolean fragmented;
+    private final String source;
+    private final boolean lazy;
+    private final Object writeLock = new Object();
+
+    // THE INI FILE - swapped as a whole on reload, readers take one reference per lookup
+    private volatile IniSections loaded;
 
     private volatile boolean frozen;
+    private volatile ConfigurationSnapshot frozenSnapshot;
+
+    // PARSED VALUES - slots are stable per name, a put blocks the slot it changes, a reload discards the cache
+    private final Map<String, Integer> typedSlots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTypedSlot = new AtomicInteger();
+    private final AtomicReference<TypedValueCache> typedCache = new AtomicReference<>();
+
+    // RESOLVED INI VALUES BY NAME - replaced whenever the file or the mappings change
+    private volatile IniRoutes iniRoutes;
+
+    // SORTED KEY INDEX - built on the first listing, kept current by puts, discarded by mapping changes and reloads
+    private volatile KeyIndex keyIndex;
+
+    private final ChangeNotifier notifier = new ChangeNotifier();
+
+    private volatile ConfigurationMetrics metrics = ConfigurationMetrics.NONE;
+    private long loadNanos;
 
     public INIConfiguration(String confFile) {
         this(DEFAULT_NAMESPACE_SEPARATOR, confFile);
@@ -51,22 +92,234 @@ public class INIConfiguration implements Configuration {
      * @param confFile                  The 'confFile' parameter does not have to exist. However, it cannot be null.
      */
     public INIConfiguration(String defaultNameSpaceSeperator, String confFile) {
+        this(defaultNameSpaceSeperator, confFile, false);
+    }
+
+    /**
+     * @param defaultNameSpaceSeperator NameSpace seperator must be specified.
+     * @param confFile                  The 'confFile' parameter does not have to exist. However, it cannot be null.
+     * @param lazy                      if true, only the positions of the sections are read when the file is opened
+     *                                  and a section is parsed the first time it is looked up. Listing the keys or
+     *                                  freezing parses all sections. The file should be replaced rather than
+     *                                  rewritten in place while it is open.
+     */
+    public INIConfiguration(String defaultNameSpaceSeperator, String confFile, boolean lazy) {
+        this(defaultNameSpaceSeperator, Collections.singletonList(confFile(confFile)), null, false, lazy);
+    }
+
+    /**
+     * Loads several INI fragments as one file: the fragments are parsed and merged in order,
+     * a later fragment takes precedence over an earlier one for the same section and key.
+     * Fragments that do not exist are skipped, also if the list has a single fragment. Several fragments are parsed
+     * in parallel on a pool of daemon threads of this class, one per processor, never on the common fork/join pool.
+     *
+     * @param defaultNameSpaceSeperator NameSpace seperator must be specified.
+     * @param confFiles                 the fragments in order of increasing precedence
+     * @param lazy                      as for a single file, see {@link #INIConfiguration(String, String, boolean)}
+     */
+    public INIConfiguration(String defaultNameSpaceSeperator, List<String> confFiles, boolean lazy) {
+        this(defaultNameSpaceSeperator, confFiles.stream().map(INIConfiguration::confFile).collect(Collectors.toList()), null, true, lazy);
+    }
+
+    /**
+     * Loads the '*.ini' files of a directory as fragments in order of their names, e.g. '00-base.ini' before
+     * '10-site.ini'. The directory is listed again on every reload, so fragments can be added and removed.
+     *
+     * @param defaultNameSpaceSeperator NameSpace seperator must be specified.
+     * @param directory                 the directory, it does not have to exist
+     * @param lazy                      as for a single file, see {@link #INIConfiguration(String, String, boolean)}
+     * @return the configuration
+     */
+    public static INIConfiguration directory(String defaultNameSpaceSeperator, String directory, boolean lazy) {
+        return new INIConfiguration(defaultNameSpaceSeperator, Collections.emptyList(), confFile(directory), true, lazy);
+    }
+
+    private INIConfiguration(String defaultNameSpaceSeperator, List<File> files, File directory, boolean fragmented,
+                             boolean lazy) {
+        this.lazy = lazy;
+        this.fragmented = fragmented;
         this.namespaceSeparator = Objects.requireNonNull(defaultNameSpaceSeperator, "NameSpace seperator must be specified.");
+        this.files = files;
+        this.directory = directory;
+        this.source = directory != null ? directory.toString() : fragmented ? files.toString() : files.get(0).toString();
+        if (directory != null ? directory.isDirectory() : files.stream().anyMatch(File::exists)) {
+            try {
+                long start = System.nanoTime();
+                loaded = load();
+                loadNanos = System.nanoTime() - start;
+            } catch (IOException e) {
+                log.error("Exception loading INI file '" + source + "': reason= {}", e.getMessage());
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static File confFile(String confFile) {
         if (confFile == null || confFile.isEmpty()) {
             throw new IllegalArgumentException("The 'confFile' parameter does not have to exist. However, it cannot be null.");
         }
-        File file = new File(confFile);
-        if (file.exists()) {
+        return new File(confFile);
+    }
+
+    private IniSections load() throws IOException {
+        if (!fragmented) {
+            return load(files.get(0));
+        }
+        List<File> fragments = fragments();
+        List<IniSections> parsed = new ArrayList<>(fragments.size());
+        if (fragments.size() == 1) {
+            parsed.add(load(fragments.get(0)));
+        } else if (!fragments.isEmpty()) {
+            // PARSE IN PARALLEL - on the bounded parser pool, so blocking reads never hold threads of the common
+            // fork/join pool. The calling thread parses the last fragment itself instead of only waiting.
+            // The futures keep the order of the fragments, so the merge is deterministic
+            int last = fragments.size() - 1;
+            List<Future<IniSections>> futures = new ArrayList<>(last);
+            for (File fragment : fragments.subList(0, last)) {
+                futures.add(FragmentParsers.INSTANCE.submit(() -> load(fragment)));
+            }
             try {
-                ini = new Ini(file);
-            } catch (IOException e) {
-                log.error("Exception loading INI file '" + confFile + "': reason= {}", e.getMessage());
-                throw new UncheckedIOException(e);
+                IniSections own;
+                try {
+                    own = load(fragments.get(last));
+                } catch (IOException | RuntimeException | Error e) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw e;
+                }
+                for (Future<IniSections> future : futures) {
+                    parsed.add(future.get());
+                }
+                parsed.add(own);
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while loading '" + source + "'");
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+        log.debug("loaded {} INI fragments from '{}'", parsed.size(), source);
+        return IniSections.merge(parsed);
+    }
+
+    private IniSections load(File file) throws IOException {
+        return lazy ? IniSections.index(file.toPath()) : IniSections.parse(file.toPath());
+    }
+
+    // THE FRAGMENTS THAT EXIST NOW - a directory is listed again each time
+    private List<File> fragments() {
+        if (directory == null) {
+            return files.stream().filter(File::exists).collect(Collectors.toList());
+        }
+        File[] listed = directory.listFiles((d, name) -> name.endsWith(".ini"));
+        if (listed == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(listed, Comparator.comparing(File::getName));
+        return Arrays.asList(listed);
+    }
+
+    /**
+     * Parses the INI file again and publishes the new values in one reference swap,
+     * so readers see either the old or the new file and never block.
+     * The previous values are kept if the file is missing or cannot be parsed.
+     * A frozen configuration recompiles its snapshot: freezing only forbids programmatic changes.
+     *
+     * @return true if the file was parsed and published
+     */
+    public boolean reload() {
+        long start = System.nanoTime();
+        IniSections reloaded;
+        try {
+            reloaded = load();
+        } catch (IOException e) {
+            log.error("Exception reloading INI file '" + source + "', keeping previous values: reason= {}", e.getMessage());
+            return false;
+        }
+        synchronized (writeLock) {
+            ConfigurationSnapshot before = notifier.hasSubscribers() ? snapshot() : null;
+            loaded = reloaded;
+            iniRoutes = null;
+            typedCache.set(null);
+            keyIndex = null;
+            if (frozen) {
+                frozenSnapshot = compileSnapshot(reloaded);
+            }
+            if (before != null) {
+                notifier.changed(before, snapshot());
             }
-            prefs = new IniPreferences(ini);
+        }
+        long nanos = System.nanoTime() - start;
+        ConfigurationMetrics m = metrics;
+        if (m != ConfigurationMetrics.NONE) {
+            m.loaded(source, nanos, true, keysPerSection(reloaded));
+        }
+        log.debug("reloaded '{}' in {} ms", source, TimeUnit.NANOSECONDS.toMillis(nanos));
+        return true;
+    }
+
+    /**
+     * Reports reads, typed cache hits and misses, parse failures and loads to the metrics.
+     * The first load has already happened and is reported at once.
+     *
+     * @param metrics the metrics, {@link ConfigurationMetrics#NONE} to stop reporting
+     * @return this configuration
+     */
+    public INIConfiguration metrics(ConfigurationMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+        IniSections l = loaded;
+        if (l != null && metrics != ConfigurationMetrics.NONE) {
+            metrics.loaded(source, loadNanos, false, keysPerSection(l));
+        }
+        return this;
+    }
+
+    // COUNTING KEYS PARSES EVERY SECTION - not done for lazy files
+    private Map<String, Integer> keysPerSection(IniSections l) {
+        if (lazy) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> keys = new LinkedHashMap<>();
+        l.forEach((section, options) -> keys.put(section, options.size()));
+        return keys;
+    }
+
+    /**
+     * Watches the INI files and calls {@link #reload()} on a background thread after a burst of changes
+     * has been quiet for the debounce period. For a directory, any change of an '*.ini' file in it counts.
+     *
+     * @param debounce the quiet period
+     * @param unit     the unit of the quiet period
+     * @return the watcher, close it to stop watching
+     */
+    public IniFileWatcher watch(long debounce, TimeUnit unit) {
+        Map<Path, Predicate<Path>> directories = new LinkedHashMap<>();
+        if (directory != null) {
+            directories.put(directory.getAbsoluteFile().toPath(), name -> name.toString().endsWith(".ini"));
         } else {
-            ini = null;
-            prefs = null;
+            Map<Path, Set<Path>> names = new LinkedHashMap<>();
+            files.forEach(f -> {
+                Path path = f.getAbsoluteFile().toPath();
+                names.computeIfAbsent(path.getParent(), d -> new HashSet<>()).add(path.getFileName());
+            });
+            names.forEach((d, n) -> directories.put(d, n::contains));
+        }
+        try {
+            return new IniFileWatcher(this, source, directories, unit.toMillis(debounce));
+        } catch (IOException e) {
+            log.error("Exception watching INI file '" + source + "': reason= {}", e.getMessage());
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -74,10 +327,43 @@ public class INIConfiguration implements Configuration {
     public INIConfiguration addNamespaceToINIMapping(String namespace, String iniSection) {
         Objects.requireNonNull(namespace);
         Objects.requireNonNull(iniSection);
-        namespaceToINISection.putIfAbsent(namespace, iniSection);
+        synchronized (writeLock) {
+            if (namespaceToINISection.containsKey(namespace)) {
+                return this;
+            }
+            ConfigurationSnapshot before = notifier.hasSubscribers() ? snapshot() : null;
+            Map<String, String> mappings = new LinkedHashMap<>(namespaceToINISection);
+            mappings.put(namespace, iniSection);
+            namespaceToINISection = Collections.unmodifiableMap(mappings);
+            iniRoutes = null;
+            typedCache.set(null);
+            keyIndex = null;
+            if (before != null) {
+                notifier.changed(before, snapshot());
+            }
+        }
         return this;
     }
 
+    /**
+     * @param executor the executor that delivers changes to subscribers, by default a shared daemon thread
+     * @return this configuration
+     */
+    public INIConfiguration listenerExecutor(Executor executor) {
+        notifier.executor(executor);
+        return this;
+    }
+
+    @Override
+    public ConfigurationSubscription subscribeFullyQualifiedName(String fullyQualifiedName, ConfigurationListener listener) {
+        return notifier.subscribeKey(fullyQualifiedName, listener);
+    }
+
+    @Override
+    public ConfigurationSubscription subscribeNamespace(String namespacePrefix, ConfigurationListener listener) {
+        return notifier.subscribePrefix(namespacePrefix, listener);
+    }
+
     /**
      * For each Configurable, the defaults will be loaded into the configuration.
      * The order of loading matters because the value will override any previous values matching the same key.
@@ -93,41 +379,80 @@ public class INIConfiguration implements Configuration {
 
     @Override
     public INIConfiguration putDefaults(ConfProps[] properties) {
+        Map<String, String> defaults = new LinkedHashMap<>();
         for (ConfProps prop : properties) {
-            put(prop.getFullyQualifiedName(), prop.getDefaultValue(), true);
+            if (prop.getDefaultValue() != null) {
+                defaults.put(prop.getFullyQualifiedName(), prop.getDefaultValue());
+            }
         }
+        putAll(defaults);
         return this;
     }
 
+    /**
+     * The changes of the batch are published by replacing the map of programmatically set values,
+     * so readers see either none or all of them. Every batch copies that map and the key index,
+     * which costs time in proportion to all keys.
+     */
+    @Override
+    public ConfigurationBatch batch() {
+        return new ConfigurationBatch(this::putAll);
+    }
+
     public boolean iniLoaded() {
-        return ini != null && prefs != null;
+        return loaded != null;
     }
 
+    /**
+     * Freezes the configuration and switches all reads to a {@link ConfigurationSnapshot}
+     * that is compiled once from the defaults, the INI file and the programmatically set values.
+     */
     @Override
     public void freeze() {
-        frozen = true;
+        synchronized (writeLock) {
+            frozen = true;
+            frozenSnapshot = compileSnapshot(loaded);
+        }
     }
 
     @Override
-    public Set<String> keys(List<Configurable> includeKeys) {
-        // ADD WHATEVER IS IN CONF MAP - may contain unknown keys
-        Set<String> keys = new TreeSet<>(conf.keySet());
-        if (ini != null) {
-            try {
-                // make reverse map - first values take precedence
-                Map<String, String> sectionToNameSpace = new LinkedHashMap<>();
-                namespaceToINISection.forEach((k, v) -> sectionToNameSpace.putIfAbsent(v, k));
-
-                for (String section : prefs.keys()) {
-                    String namespace = sectionToNameSpace.getOrDefault(section, section);
-                    for (String key : prefs.node(section).keys()) {
-                        keys.add(namespace + namespaceSeparator + key);
+    public ConfigurationSnapshot snapshot() {
+        ConfigurationSnapshot s = frozenSnapshot;
+        return s != null ? s : compileSnapshot(loaded);
+    }
+
+    private ConfigurationSnapshot compileSnapshot(IniSections l) {
+        // RESOLVE EVERY NAME THAT CAN HAVE A VALUE - conf keys plus each INI key under its section
+        // and under every namespace mapped to that section
+        Map<String, String> c = conf;
+        Map<String, String> resolved = new HashMap<>();
+        c.keySet().forEach(k -> resolved.put(k, resolve(l, c, k)));
+        if (l != null) {
+            Map<String, List<String>> sectionToNameSpaces = new HashMap<>();
+            namespaceToINISection.forEach((k, v) -> sectionToNameSpaces.computeIfAbsent(v, x -> new ArrayList<>()).add(k));
+            l.forEach((section, options) -> {
+                List<String> namespaces = new ArrayList<>(sectionToNameSpaces.getOrDefault(section, Collections.emptyList()));
+                namespaces.add(section);
+                for (String key : options.keySet()) {
+                    for (String namespace : namespaces) {
+                        String fullyQualifiedName = namespace + namespaceSeparator + key;
+                        resolved.computeIfAbsent(fullyQualifiedName, k -> resolve(l, c, k));
                     }
                 }
-            } catch (BackingStoreException e) {
-                throw new RuntimeException("Unexpected: " + e, e);
-            }
+            });
+        }
+        Set<String> listed = new HashSet<>(c.keySet());
+        listed.addAll(listIniKeys(l));
+        return new ConfigurationSnapshot(resolved, listed);
+    }
+
+    @Override
+    public Set<String> keys(List<Configurable> includeKeys) {
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            return s.keys(includeKeys);
         }
+        Set<String> keys = new TreeSet<>(keyIndex().values.keySet());
         // THEN ADD ALL KEYS IN PROVIDED COLLECTIONS
         if (!includeKeys.isEmpty()) {
             includeKeys.stream().map(Configurable::getConfProps)
@@ -137,6 +462,45 @@ public class INIConfiguration implements Configuration {
 
     }
 
+    private Set<String> listIniKeys(IniSections l) {
+        Set<String> keys = new HashSet<>();
+        if (l != null) {
+            // make reverse map - first values take precedence
+            Map<String, String> sectionToNameSpace = new LinkedHashMap<>();
+            namespaceToINISection.forEach((k, v) -> sectionToNameSpace.putIfAbsent(v, k));
+
+            l.forEach((section, options) -> {
+                String namespace = sectionToNameSpace.getOrDefault(section, section);
+                for (String key : options.keySet()) {
+                    keys.add(namespace + namespaceSeparator + key);
+                }
+            });
+        }
+        return keys;
+    }
+
+    private KeyIndex keyIndex() {
+        KeyIndex index = keyIndex;
+        if (index == null) {
+            synchronized (writeLock) {
+                index = keyIndex;
+                if (index == null) {
+                    IniSections l = loaded;
+                    index = new KeyIndex(listIniKeys(l));
+                    // ADD WHATEVER IS IN CONF MAP - may contain unknown keys
+                    for (String key : conf.keySet()) {
+                        index.update(key, true, resolve(l, key));
+                    }
+                    for (String key : index.iniKeys) {
+                        index.update(key, true, resolve(l, key));
+                    }
+                    keyIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     @Override
     public Set<String> keys(Configurable[] configurables, Configurable[]... moreConfigurables) {
         List<Configurable> list = new ArrayList<>();
@@ -155,77 +519,172 @@ public class INIConfiguration implements Configuration {
 
     @Override
     public void forEach(BiConsumer<String, String> consumer) {
-        keys(Collections.emptyList()).forEach(key -> {
-            String value = stringFullyQualifiedName(key);
-            if (value != null) {
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            s.forEach(consumer);
+            return;
+        }
+        keyIndex().values.forEach((key, value) -> {
+            if (value != KeyIndex.UNRESOLVED) {
                 consumer.accept(key, value);
             }
         });
     }
 
-    private String checkNode(String section, String key) {
-        Preferences node = prefs.node(section);
-        if (node != null) {
-            return node.get(key, null);
+    @Override
+    public void forEachWithPrefix(String prefix, BiConsumer<String, String> consumer) {
+        Objects.requireNonNull(prefix, "prefix");
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            s.forEachWithPrefix(prefix, consumer);
+            return;
+        }
+        // THE SORTED INDEX FROM THE PREFIX ON - stops at the first key outside the prefix
+        for (Map.Entry<String, String> entry : keyIndex().values.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (entry.getValue() != KeyIndex.UNRESOLVED) {
+                consumer.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private String checkNode(IniSections l, String section, String key) {
+        Map<String, String> options = l.section(section);
+        if (options != null) {
+            return options.get(key);
         }
         return null;
     }
 
-    private String getNamespaceKey(String namespace, String key) {
-        String section = namespaceToINISection.getOrDefault(namespace, namespace);
+    private String getNamespaceKey(IniSections l, Map<String, String> mappings, String namespace, String key) {
+        String section = mappings.getOrDefault(namespace, namespace);
         // FIRST CHECK - SEE IF SECTION HAS VALUE
-        String value = checkNode(section, key);
+        String value = checkNode(l, section, key);
         if (value != null || section.equals(namespace)) {
             return value;
         }
         // SECOND CHECK - SEE IF NAMESPACE HAS VALUE
-        return checkNode(namespace, key);
+        return checkNode(l, namespace, key);
     }
 
 
     public String getIniValue(Configurable configurable) {
-        if (ini != null) {
+        IniSections l = loaded;
+        if (l != null) {
             ConfProps confProps = configurable.getConfProps();
-            return getNamespaceKey(confProps.getNameSpace(), confProps.getName());
+            return getNamespaceKey(l, namespaceToINISection, confProps.getNameSpace(), confProps.getName());
         }
         return null;
     }
 
 
     public String getIniValueFullyQualifiedName(String nameSpaceSeperator, String fullyQualifiedName) {
-        if (ini != null) {
-            String namespace = StringUtils.substringBeforeLast(fullyQualifiedName, nameSpaceSeperator);
-            String key = StringUtils.substringAfterLast(fullyQualifiedName, nameSpaceSeperator);
-            return getNamespaceKey(namespace, key);
-        }
-        return null;
+        return getIniValueFullyQualifiedName(loaded, nameSpaceSeperator, fullyQualifiedName);
     }
 
     public String getIniValueFullyQualifiedName(String fullyQualifiedName) {
-        return getIniValueFullyQualifiedName(namespaceSeparator, fullyQualifiedName);
+        return getIniValueFullyQualifiedName(loaded, namespaceSeparator, fullyQualifiedName);
     }
 
-    ///////////////////////////////
+    private String getIniValueFullyQualifiedName(IniSections l, String nameSpaceSeperator, String fullyQualifiedName) {
+        if (l == null) {
+            return null;
+        }
+        Map<String, String> mappings = namespaceToINISection;
+        if (!nameSpaceSeperator.equals(namespaceSeparator)) {
+            return splitNamespaceKey(l, mappings, nameSpaceSeperator, fullyQualifiedName);
+        }
+        // FIRST CHECK - THE ROUTES OF THIS FILE AND THESE MAPPINGS
+        IniRoutes routes = iniRoutes;
+        if (routes == null || routes.loaded != l || routes.mappings != mappings) {
+            routes = new IniRoutes(l, mappings);
+            iniRoutes = routes;
+        }
+        String value = routes.values.get(fullyQualifiedName);
+        if (value != null) {
+            return value == IniRoutes.ABSENT ? null : value;
+        }
+        // SECOND CHECK - SPLIT THE NAME AND LOOK IT UP
+        value = splitNamespaceKey(l, mappings, nameSpaceSeperator, fullyQualifiedName);
+        // names built on the fly must not grow the cache without bound
+        if (routes.values.size() < MAX_ROUTES) {
+            routes.values.put(fullyQualifiedName, value == null ? IniRoutes.ABSENT : value);
+        }
+        return value;
+    }
 
-    private String getConfValue(ConfProps confProps) {
-        return getConfValue(confProps.getFullyQualifiedName());
+    private String splitNamespaceKey(IniSections l, Map<String, String> mappings, String nameSpaceSeperator, String fullyQualifiedName) {
+        String namespace = StringUtils.substringBeforeLast(fullyQualifiedName, nameSpaceSeperator);
+        String key = StringUtils.substringAfterLast(fullyQualifiedName, nameSpaceSeperator);
+        return getNamespaceKey(l, mappings, namespace, key);
     }
 
+    ///////////////////////////////
+
     // Programmatically set values override INI file values
     private String getConfValue(String fullyQualifiedName) {
-        String value = conf.getOrDefault(fullyQualifiedName, null);
-        return value == null ? getIniValueFullyQualifiedName(fullyQualifiedName) : value;
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            return s.stringFullyQualifiedName(fullyQualifiedName);
+        }
+        return resolve(loaded, fullyQualifiedName);
+    }
+
+    // A READ BY THE CALLER - resolved like getConfValue and reported to the metrics
+    private String read(String fullyQualifiedName) {
+        ConfigurationMetrics m = metrics;
+        if (m == ConfigurationMetrics.NONE) {
+            return getConfValue(fullyQualifiedName);
+        }
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            String value = s.stringFullyQualifiedName(fullyQualifiedName);
+            m.read(fullyQualifiedName, value == null ? ConfigurationMetrics.Source.MISSING : ConfigurationMetrics.Source.SNAPSHOT);
+            return value;
+        }
+        String value = conf.get(fullyQualifiedName);
+        if (value != null) {
+            m.read(fullyQualifiedName, ConfigurationMetrics.Source.PROGRAMMATIC);
+            return value;
+        }
+        value = getIniValueFullyQualifiedName(loaded, namespaceSeparator, fullyQualifiedName);
+        m.read(fullyQualifiedName, value == null ? ConfigurationMetrics.Source.MISSING : ConfigurationMetrics.Source.INI);
+        return value;
+    }
+
+    // A TYPED READ OF A FROZEN CONFIGURATION - the value is only looked up again when metrics are reported
+    private void readFrozen(ConfigurationSnapshot s, String fullyQualifiedName) {
+        ConfigurationMetrics m = metrics;
+        if (m != ConfigurationMetrics.NONE) {
+            m.read(fullyQualifiedName, s.stringFullyQualifiedName(fullyQualifiedName) == null
+                    ? ConfigurationMetrics.Source.MISSING : ConfigurationMetrics.Source.SNAPSHOT);
+        }
+    }
+
+    private String resolve(IniSections l, String fullyQualifiedName) {
+        return resolve(l, conf, fullyQualifiedName);
+    }
+
+    private String resolve(IniSections l, Map<String, String> c, String fullyQualifiedName) {
+        String value = c.getOrDefault(fullyQualifiedName, null);
+        return value == null ? getIniValueFullyQualifiedName(l, namespaceSeparator, fullyQualifiedName) : value;
     }
 
     ////////////////////////////////
 
     @Override
     public String allSettings() {
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            return s.allSettings();
+        }
         final StringBuilder settings = new StringBuilder();
-        keys(Collections.emptyList())
-                .forEach(k -> settings.append("key= '").append(k)
+        keyIndex().values
+                .forEach((k, v) -> settings.append("key= '").append(k)
                         .append("'\t\t -> ")
-                        .append("value= '").append(getConfValue(k)).append("'")
+                        .append("value= '").append(v == KeyIndex.UNRESOLVED ? null : v).append("'")
                         .append("\n"));
         return settings.toString();
     }
@@ -244,7 +703,7 @@ public class INIConfiguration implements Configuration {
 
     @Override
     public void putFullyQualifiedName(final String fullyQualifiedName, final String value) {
-        put(fullyQualifiedName, value, false);
+        put(fullyQualifiedName, value);
     }
 
     @Override
@@ -263,51 +722,178 @@ public class INIConfiguration implements Configuration {
 
     /**
      * @param fullyQualifiedName the name of the key
-     * @param value              the value to put
-     * @param defaults           if null values should result in the removal of the existing entry
+     * @param value              the value to put, null removes the existing entry
      */
-    private void put(final String fullyQualifiedName, final String value, boolean defaults) {
-        if (frozen) {
-            throw new UnsupportedOperationException("This configuration has been frozen and is now immutable.");
-        }
-        if (value == null) {
-            if (!defaults) {
+    private void put(final String fullyQualifiedName, final String value) {
+        synchronized (writeLock) {
+            checkNotFrozen();
+            boolean notify = notifier.hasSubscribers();
+            String oldValue = notify ? getConfValue(fullyQualifiedName) : null;
+            // ONLY THE CHANGED SLOT - blocked while the value changes, so no reader caches the old value again
+            TypedValueCache cache = typedCache.get();
+            Integer slot = typedSlots.get(fullyQualifiedName);
+            if (cache != null && slot != null) {
+                cache.block(slot);
+            }
+            if (value == null) {
                 conf.remove(fullyQualifiedName);
-                log.debug("value associated with '{}' has been removed", fullyQualifiedName);
+            } else {
+                conf.put(fullyQualifiedName, value);
+            }
+            if (cache != null && slot != null) {
+                cache.unblock(slot);
+            }
+            KeyIndex index = keyIndex;
+            if (index != null) {
+                updateKeyIndex(index, fullyQualifiedName);
+            }
+            // NOTIFY UNDER THE LOCK - the notifier must see the changes of one key in the order they were made
+            if (notify) {
+                notifier.changed(fullyQualifiedName, oldValue, getConfValue(fullyQualifiedName));
             }
+        }
+        if (value == null) {
+            log.debug("value associated with '{}' has been removed", fullyQualifiedName);
         } else {
-            conf.put(fullyQualifiedName, value);
             log.debug("put '{}' -> '{}'", fullyQualifiedName, value);
         }
     }
 
+    /**
+     * Applies all values in one publish: the map of programmatically set values and the key index are copied,
+     * changed and swapped in. The copies cost time in proportion to all keys, not to the changed ones,
+     * so prefer one batch over many small ones.
+     *
+     * @param values the values by fully qualified name, a null value removes the existing entry
+     */
+    private void putAll(Map<String, String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            checkNotFrozen();
+            boolean notify = notifier.hasSubscribers();
+            Map<String, String> oldValues = new HashMap<>();
+            if (notify) {
+                values.keySet().forEach(k -> oldValues.put(k, getConfValue(k)));
+            }
+            Map<String, String> next = new ConcurrentHashMap<>(conf);
+            values.forEach((k, v) -> {
+                if (v == null) {
+                    next.remove(k);
+                } else {
+                    next.put(k, v);
+                }
+            });
+            KeyIndex index = keyIndex;
+            KeyIndex nextIndex = index == null ? null : new KeyIndex(index);
+            // ALL CHANGED SLOTS ARE BLOCKED BEFORE THE SWAP - no reader pairs a cached old value of one key
+            // with a new raw value of another, and no reader caches an old value again
+            TypedValueCache cache = typedCache.get();
+            List<Integer> slots = new ArrayList<>(values.size());
+            if (cache != null) {
+                values.keySet().forEach(k -> {
+                    Integer slot = typedSlots.get(k);
+                    if (slot != null) {
+                        cache.block(slot);
+                        slots.add(slot);
+                    }
+                });
+            }
+            conf = next;
+            if (nextIndex != null) {
+                values.keySet().forEach(k -> updateKeyIndex(nextIndex, k));
+                keyIndex = nextIndex;
+            }
+            if (cache != null) {
+                slots.forEach(cache::unblock);
+            }
+            if (notify) {
+                oldValues.forEach((k, v) -> notifier.changed(k, v, getConfValue(k)));
+            }
+        }
+        log.debug("put {} values", values.size());
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("This configuration has been frozen and is now immutable.");
+        }
+    }
+
+    private void updateKeyIndex(KeyIndex index, String fullyQualifiedName) {
+        index.update(fullyQualifiedName, index.iniKeys.contains(fullyQualifiedName) || conf.containsKey(fullyQualifiedName),
+                resolve(loaded, fullyQualifiedName));
+    }
+
+    private int typedSlot(String fullyQualifiedName) {
+        Integer slot = typedSlots.get(fullyQualifiedName);
+        if (slot != null) {
+            return slot;
+        }
+        // names built on the fly must not grow the cache without bound
+        if (nextTypedSlot.get() >= MAX_TYPED_SLOTS) {
+            return -1;
+        }
+        // ASSIGNED UNDER THE WRITE LOCK - a put that found no slot for its name has finished before one exists
+        synchronized (writeLock) {
+            return typedSlots.computeIfAbsent(fullyQualifiedName, k -> nextTypedSlot.getAndIncrement());
+        }
+    }
+
+    /**
+     * The cache and the stamp of the slot must be obtained before the raw value is read: a put blocks the slot
+     * in the current cache while it changes the value, and a reload discards the cache after it swapped the file.
+     * The arrays are kept across puts and only replaced when a new slot does not fit, under the write lock,
+     * so no put blocks its slot in a cache that is being replaced.
+     */
+    private TypedValueCache typedCache(int slot) {
+        TypedValueCache cache = typedCache.get();
+        if (cache != null && slot < cache.capacity()) {
+            return cache;
+        }
+        synchronized (writeLock) {
+            cache = typedCache.get();
+            if (cache == null || slot >= cache.capacity()) {
+                cache = new TypedValueCache(Math.max(16, Integer.highestOneBit(nextTypedSlot.get()) << 1));
+                typedCache.set(cache);
+            }
+            return cache;
+        }
+    }
+
     ////////////////////////
     // using Configurable //
     ////////////////////////
 
     @Override
     public String string(Configurable key) {
-        return getConfValue(key.getConfProps());
+        return read(key.getConfProps().getFullyQualifiedName());
     }
 
     @Override
     public float floating(Configurable key) {
-        return Float.parseFloat(getConfValue(key.getConfProps()));
+        return floatingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
     }
 
     @Override
     public double doubling(Configurable key) {
-        return Double.parseDouble(getConfValue(key.getConfProps()));
+        return doublingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
     }
 
     @Override
     public int integer(Configurable key) {
-        return Integer.parseInt(getConfValue(key.getConfProps()));
+        return integerFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public long longing(Configurable key) {
+        return longingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
     }
 
     @Override
     public boolean booling(Configurable key) {
-        return Boolean.parseBoolean(getConfValue(key.getConfProps()));
+        return boolingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
     }
 
     ////////////////////////////////
@@ -316,26 +902,208 @@ public class INIConfiguration implements Configuration {
 
     @Override
     public String stringFullyQualifiedName(String fullyQualifiedName) {
-        return getConfValue(fullyQualifiedName);
+        return read(fullyQualifiedName);
     }
 
     @Override
     public float floatingFullyQualifiedName(String fullyQualifiedName) {
-        return Float.parseFloat(getConfValue(fullyQualifiedName));
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            readFrozen(s, fullyQualifiedName);
+            try {
+                return s.floatingFullyQualifiedName(fullyQualifiedName);
+            } catch (NumberFormatException e) {
+                metrics.parseFailure(fullyQualifiedName, s.stringFullyQualifiedName(fullyQualifiedName));
+                throw e;
+            }
+        }
+        int slot = typedSlot(fullyQualifiedName);
+        TypedValueCache cache = typedCache(slot);
+        if (cache.hasFloating(slot)) {
+            metrics.typedRead(fullyQualifiedName, true);
+            return cache.getFloating(slot);
+        }
+        metrics.typedRead(fullyQualifiedName, false);
+        int stamp = cache.stamp(slot);
+        String value = read(fullyQualifiedName);
+        try {
+            return cache.floating(slot, stamp, value);
+        } catch (NumberFormatException e) {
+            metrics.parseFailure(fullyQualifiedName, value);
+            throw e;
+        }
     }
 
     @Override
     public double doublingFullyQualifiedName(String fullyQualifiedName) {
-        return Double.parseDouble(getConfValue(fullyQualifiedName));
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            readFrozen(s, fullyQualifiedName);
+            try {
+                return s.doublingFullyQualifiedName(fullyQualifiedName);
+            } catch (NumberFormatException e) {
+                metrics.parseFailure(fullyQualifiedName, s.stringFullyQualifiedName(fullyQualifiedName));
+                throw e;
+            }
+        }
+        int slot = typedSlot(fullyQualifiedName);
+        TypedValueCache cache = typedCache(slot);
+        if (cache.hasDoubling(slot)) {
+            metrics.typedRead(fullyQualifiedName, true);
+            return cache.getDoubling(slot);
+        }
+        metrics.typedRead(fullyQualifiedName, false);
+        int stamp = cache.stamp(slot);
+        String value = read(fullyQualifiedName);
+        try {
+            return cache.doubling(slot, stamp, value);
+        } catch (NumberFormatException e) {
+            metrics.parseFailure(fullyQualifiedName, value);
+            throw e;
+        }
     }
 
     @Override
     public int integerFullyQualifiedName(String fullyQualifiedName) {
-        return Integer.parseInt(getConfValue(fullyQualifiedName));
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            readFrozen(s, fullyQualifiedName);
+            try {
+                return s.integerFullyQualifiedName(fullyQualifiedName);
+            } catch (NumberFormatException e) {
+                metrics.parseFailure(fullyQualifiedName, s.stringFullyQualifiedName(fullyQualifiedName));
+                throw e;
+            }
+        }
+        int slot = typedSlot(fullyQualifiedName);
+        TypedValueCache cache = typedCache(slot);
+        if (cache.hasInteger(slot)) {
+            metrics.typedRead(fullyQualifiedName, true);
+            return cache.getInteger(slot);
+        }
+        metrics.typedRead(fullyQualifiedName, false);
+        int stamp = cache.stamp(slot);
+        String value = read(fullyQualifiedName);
+        try {
+            return cache.integer(slot, stamp, value);
+        } catch (NumberFormatException e) {
+            metrics.parseFailure(fullyQualifiedName, value);
+            throw e;
+        }
+    }
+
+    @Override
+    public long longingFullyQualifiedName(String fullyQualifiedName) {
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            readFrozen(s, fullyQualifiedName);
+            try {
+                return s.longingFullyQualifiedName(fullyQualifiedName);
+            } catch (NumberFormatException e) {
+                metrics.parseFailure(fullyQualifiedName, s.stringFullyQualifiedName(fullyQualifiedName));
+                throw e;
+            }
+        }
+        int slot = typedSlot(fullyQualifiedName);
+        TypedValueCache cache = typedCache(slot);
+        if (cache.hasLonging(slot)) {
+            metrics.typedRead(fullyQualifiedName, true);
+            return cache.getLonging(slot);
+        }
+        metrics.typedRead(fullyQualifiedName, false);
+        int stamp = cache.stamp(slot);
+        String value = read(fullyQualifiedName);
+        try {
+            return cache.longing(slot, stamp, value);
+        } catch (NumberFormatException e) {
+            metrics.parseFailure(fullyQualifiedName, value);
+            throw e;
+        }
     }
 
     @Override
     public boolean boolingFullyQualifiedName(String fullyQualifiedName) {
-        return Boolean.parseBoolean(getConfValue(fullyQualifiedName));
+        ConfigurationSnapshot s = frozenSnapshot;
+        if (s != null) {
+            readFrozen(s, fullyQualifiedName);
+            return s.boolingFullyQualifiedName(fullyQualifiedName);
+        }
+        int slot = typedSlot(fullyQualifiedName);
+        TypedValueCache cache = typedCache(slot);
+        if (cache.hasBooling(slot)) {
+            metrics.typedRead(fullyQualifiedName, true);
+            return cache.getBooling(slot);
+        }
+        metrics.typedRead(fullyQualifiedName, false);
+        int stamp = cache.stamp(slot);
+        return cache.booling(slot, stamp, read(fullyQualifiedName));
+    }
+
+    /**
+     * The keys reported by {@link #keys(List)} and {@link #forEach(BiConsumer)}, sorted and with their resolved values,
+     * so a listing is one pass over the index. Only changed under the write lock.
+     */
+    private static final class KeyIndex {
+
+        // a listed key whose name does not resolve, e.g. an INI key containing the namespace separator
+        private static final String UNRESOLVED = new String("");
+
+        private final Set<String> iniKeys;
+        private final ConcurrentNavigableMap<String, String> values;
+
+        private KeyIndex(Set<String> iniKeys) {
+            this.iniKeys = iniKeys;
+            this.values = new ConcurrentSkipListMap<>();
+        }
+
+        // the sorted copy is built in linear time
+        private KeyIndex(KeyIndex copy) {
+            this.iniKeys = copy.iniKeys;
+            this.values = new ConcurrentSkipListMap<>(copy.values);
+        }
+
+        private void update(String fullyQualifiedName, boolean listed, String value) {
+            if (listed) {
+                values.put(fullyQualifiedName, value == null ? UNRESOLVED : value);
+            } else {
+                values.remove(fullyQualifiedName);
+            }
+        }
+    }
+
+    /**
+     * The INI value of every fully qualified name looked up so far, {@link #ABSENT} for names without one,
+     * so a repeated read neither splits the name nor consults the mappings and sections again.
+     * Only valid for the file and the mappings it was created for.
+     */
+    private static final class IniRoutes {
+
+        private static final String ABSENT = new String("");
+
+        private final IniSections loaded;
+        private final Map<String, String> mappings;
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+
+        private IniRoutes(IniSections loaded, Map<String, String> mappings) {
+            this.loaded = loaded;
+            this.mappings = mappings;
+        }
+    }
+
+    // one daemon thread per processor for all configurations, they time out when no fragments are being parsed
+    private static final class FragmentParsers {
+        private static final ExecutorService INSTANCE;
+
+        static {
+            int threads = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "annoconf-ini-parser");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            INSTANCE = executor;
+        }
     }
 }
@@ -0,0 +1,205 @@
+package github.footloosejava.annoconf;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Base of configurations whose values are looked up by slot in a table that never changes.
+ * All mutating methods throw {@link UnsupportedOperationException} and subscriptions never fire.
+ */
+abstract class ImmutableConfiguration implements Configuration {
+
+    private final String immutableMessage;
+
+    // PARSED PRIMITIVES - one per slot, filled on first typed read
+    private final TypedValueCache typed;
+
+    ImmutableConfiguration(String immutableMessage, int slots) {
+        this.immutableMessage = immutableMessage;
+        this.typed = new TypedValueCache(slots);
+    }
+
+    /**
+     * @return the slot of the name or -1 if the name has no value
+     */
+    abstract int indexOf(String fullyQualifiedName);
+
+    /**
+     * @param slot a slot or -1
+     * @return the value in the slot or null for -1
+     */
+    abstract String valueAt(int slot);
+
+    private UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException(immutableMessage);
+    }
+
+    @Override
+    public Configuration putDefaults(Configurable[] properties) {
+        throw immutable();
+    }
+
+    @Override
+    public Configuration putDefaults(ConfProps[] properties) {
+        throw immutable();
+    }
+
+    /**
+     * Always frozen.
+     */
+    @Override
+    public void freeze() {
+    }
+
+    @Override
+    public Set<String> keys(Configurable[] configurables, Configurable[]... moreConfigurables) {
+        List<Configurable> list = new ArrayList<>();
+        if (configurables != null) {
+            Collections.addAll(list, configurables);
+        }
+        if (moreConfigurables != null) {
+            for (Configurable[] ca : moreConfigurables) {
+                if (ca != null) {
+                    Collections.addAll(list, ca);
+                }
+            }
+        }
+        return keys(list);
+    }
+
+    @Override
+    public Set<String> keys(List<Configurable> includeKeys) {
+        Set<String> keys = new TreeSet<>();
+        forEach((k, v) -> keys.add(k));
+        includeKeys.forEach(it -> keys.add(it.getConfProps().getFullyQualifiedName()));
+        return keys;
+    }
+
+    @Override
+    public String allSettings() {
+        final StringBuilder settings = new StringBuilder();
+        forEach((k, v) -> settings.append("key= '").append(k)
+                .append("'\t\t -> ")
+                .append("value= '").append(v).append("'")
+                .append("\n"));
+        return settings.toString();
+    }
+
+    @Override
+    public void put(Configurable configurable) {
+        throw immutable();
+    }
+
+    @Override
+    public void put(Configurable key, String value) {
+        throw immutable();
+    }
+
+    @Override
+    public void putFullyQualifiedName(String fullyQualifiedName, String value) {
+        throw immutable();
+    }
+
+    /**
+     * Never changes.
+     */
+    @Override
+    public ConfigurationSubscription subscribeFullyQualifiedName(String fullyQualifiedName, ConfigurationListener listener) {
+        return ConfigurationSubscription.NONE;
+    }
+
+    /**
+     * Never changes.
+     */
+    @Override
+    public ConfigurationSubscription subscribeNamespace(String namespacePrefix, ConfigurationListener listener) {
+        return ConfigurationSubscription.NONE;
+    }
+
+    @Override
+    public boolean putIfNotNull(Configurable configurable) {
+        return putIfNotNull(configurable, configurable.getConfProps().getDefaultValue());
+    }
+
+    @Override
+    public boolean putIfNotNull(Configurable key, String value) {
+        if (value != null) {
+            put(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    ////////////////////////
+    // using Configurable //
+    ////////////////////////
+
+    @Override
+    public String string(Configurable key) {
+        return stringFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public float floating(Configurable key) {
+        return floatingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public double doubling(Configurable key) {
+        return doublingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public int integer(Configurable key) {
+        return integerFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public long longing(Configurable key) {
+        return longingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public boolean booling(Configurable key) {
+        return boolingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    ////////////////////////////////
+    // using fully qualified name //
+    ////////////////////////////////
+
+    @Override
+    public String stringFullyQualifiedName(String fullyQualifiedName) {
+        return valueAt(indexOf(fullyQualifiedName));
+    }
+
+    @Override
+    public float floatingFullyQualifiedName(String fullyQualifiedName) {
+        int slot = indexOf(fullyQualifiedName);
+        return typed.floating(slot, typed.hasFloating(slot) ? null : valueAt(slot));
+    }
+
+    @Override
+    public double doublingFullyQualifiedName(String fullyQualifiedName) {
+        int slot = indexOf(fullyQualifiedName);
+        return typed.doubling(slot, typed.hasDoubling(slot) ? null : valueAt(slot));
+    }
+
+    @Override
+    public int integerFullyQualifiedName(String fullyQualifiedName) {
+        int slot = indexOf(fullyQualifiedName);
+        return typed.integer(slot, typed.hasInteger(slot) ? null : valueAt(slot));
+    }
+
+    @Override
+    public long longingFullyQualifiedName(String fullyQualifiedName) {
+        int slot = indexOf(fullyQualifiedName);
+        return typed.longing(slot, typed.hasLonging(slot) ? null : valueAt(slot));
+    }
+
+    @Override
+    public boolean boolingFullyQualifiedName(String fullyQualifiedName) {
+        int slot = indexOf(fullyQualifiedName);
+        return typed.booling(slot, typed.hasBooling(slot) ? null : valueAt(slot));
+    }
+}
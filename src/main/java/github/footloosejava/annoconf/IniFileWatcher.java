@@ -0,0 +1,92 @@
+package github.footloosejava.annoconf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the directories of INI files and reloads the configuration on a daemon thread.
+ * <p>
+ * A burst of changes, such as an editor writing a temporary file and renaming it, is debounced:
+ * the file is only parsed once no further change has been seen for the debounce period.
+ */
+public final class IniFileWatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(IniFileWatcher.class);
+
+    private final INIConfiguration configuration;
+    private final String name;
+    // THE WATCHED DIRECTORIES - each with the file names whose changes trigger a reload
+    private final Map<Path, Predicate<Path>> directories;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    /**
+     * @param directories absolute directories, each with a test of the file names in it that trigger a reload
+     */
+    IniFileWatcher(INIConfiguration configuration, String name, Map<Path, Predicate<Path>> directories,
+                   long debounceMillis) throws IOException {
+        this.configuration = configuration;
+        this.name = name;
+        this.directories = directories;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories.keySet()) {
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        }
+
+        this.thread = new Thread(this::run, "annoconf-watcher-" + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                if (!changed(watchService.take())) {
+                    continue;
+                }
+                // DEBOUNCE - wait until the directory has been quiet for the whole period
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    changed(key);
+                }
+                try {
+                    configuration.reload();
+                } catch (RuntimeException e) {
+                    log.error("Exception reloading '" + name + "': reason= {}", e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("stopped watching '{}'", name);
+        }
+    }
+
+    private boolean changed(WatchKey key) {
+        boolean changed = false;
+        Predicate<Path> watched = directories.get((Path) key.watchable());
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= event.kind() == OVERFLOW || watched.test((Path) event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,309 @@
+package github.footloosejava.annoconf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A streaming parser for UTF-8 INI files that works directly on the bytes of a memory-mapped file.
+ * <p>
+ * Lines are tokenized in place; only section names, keys and values are decoded into Strings.
+ * The syntax follows the one ini4j accepts by default:
+ * <ul>
+ * <li>lines starting with ';' or '#' are comments, there are no trailing comments</li>
+ * <li>keys and values are split on the first unescaped '=' or ':' and trimmed</li>
+ * <li>keys and values support the escapes \t \n \r \f \b \\ and &#92;uXXXX, any other escaped character stands
+ * for itself, so '\=' and '\:' put a separator into a key</li>
+ * <li>a line ending with a single backslash continues on the next line</li>
+ * <li>a repeated section is merged and a repeated key keeps the last value</li>
+ * </ul>
+ * Unlike ini4j:
+ * <ul>
+ * <li>'${section/key}', '${@env/NAME}' and '${@prop/name}' in values are not substituted, they are kept literally</li>
+ * <li>a '/' in a section name is part of the name, '[a/b]' is not a child section of '[a]'</li>
+ * </ul>
+ */
+final class IniParser {
+
+    interface Handler {
+
+        /**
+         * @param name        the trimmed section name
+         * @param headerStart offset of the header line
+         * @param bodyStart   offset of the line after the header
+         * @param bodyLine    line number of the line after the header
+         */
+        void section(String name, int headerStart, int bodyStart, int bodyLine);
+
+        void option(String key, String value);
+    }
+
+    private final ByteBuffer buffer;
+
+    // holds a token being decoded or a line that continues over several lines
+    private byte[] scratch = new byte[256];
+
+    IniParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @param path the INI file
+     * @return the sections in file order, each with its keys in file order
+     * @throws IOException if the file cannot be read or has a syntax error
+     */
+    static Map<String, Map<String, String>> parse(Path path) throws IOException {
+        Map<String, Map<String, String>> sections = new LinkedHashMap<>();
+        new IniParser(map(path)).parse(new Handler() {
+            private Map<String, String> current;
+
+            @Override
+            public void section(String name, int headerStart, int bodyStart, int bodyLine) {
+                current = sections.computeIfAbsent(name, k -> new LinkedHashMap<>());
+            }
+
+            @Override
+            public void option(String key, String value) {
+                current.put(key, value);
+            }
+        });
+        return sections;
+    }
+
+    void parse(Handler handler) throws IOException {
+        parse(0, buffer.limit(), 1, handler, false, true);
+    }
+
+    /**
+     * Reports the section headers only. Option lines are not decoded and only checked for appearing before
+     * the first section, the rest of their syntax is checked when the section is parsed.
+     */
+    void index(Handler handler) throws IOException {
+        parse(0, buffer.limit(), 1, handler, false, false);
+    }
+
+    /**
+     * @param from      first byte
+     * @param to        end of the range, exclusive
+     * @param firstLine line number of the first byte, used in error messages
+     * @param handler   the handler
+     * @param inSection if options are allowed before the first section header of the range
+     * @param options   if option lines are decoded and reported
+     * @throws IOException on a syntax error
+     */
+    void parse(int from, int to, int firstLine, Handler handler, boolean inSection, boolean options) throws IOException {
+        int line = firstLine;
+        int pos = skipBom(from);
+        while (pos < to) {
+            int end = lineEnd(pos, to);
+            int next = end < to ? end + 1 : to;
+            int lines = 1;
+            ByteBuffer source = buffer;
+            int start = pos;
+            int stop = trimEnd(source, start, end);
+
+            // CONTINUATION - copy the logical line into the scratch buffer
+            if (continues(source, start, stop) && next < to) {
+                int length = 0;
+                while (continues(source, start, stop) && next < to) {
+                    length = append(length, source, start, stop - 1);
+                    start = trimStart(source, next, lineEnd(next, to));
+                    end = lineEnd(next, to);
+                    stop = trimEnd(source, start, end);
+                    next = end < to ? end + 1 : to;
+                    lines++;
+                }
+                length = append(length, source, start, stop);
+                source = ByteBuffer.wrap(scratch, 0, length);
+                start = 0;
+                stop = length;
+            }
+
+            String section = parseLine(source, start, stop, line, handler, inSection, options);
+            if (section != null) {
+                inSection = true;
+                handler.section(section, pos, next, line + lines);
+            }
+            line += lines;
+            pos = next;
+        }
+    }
+
+    /**
+     * @return the name if the line was a section header
+     */
+    private String parseLine(ByteBuffer source, int start, int stop, int line, Handler handler, boolean inSection,
+                             boolean options) throws IOException {
+        start = trimStart(source, start, stop);
+        if (start == stop) {
+            return null;
+        }
+        byte first = source.get(start);
+        if (first == ';' || first == '#') {
+            return null;
+        }
+        if (first == '[') {
+            int nameStart = trimStart(source, start + 1, stop - 1);
+            int nameEnd = trimEnd(source, nameStart, stop - 1);
+            if (source.get(stop - 1) != ']' || nameStart >= nameEnd) {
+                throw parseError(source, start, stop, line);
+            }
+            return decode(source, nameStart, nameEnd);
+        }
+        if (!options) {
+            if (!inSection) {
+                throw parseError(source, start, stop, line);
+            }
+            return null;
+        }
+        int separator = start;
+        while (separator < stop && source.get(separator) != '=' && source.get(separator) != ':') {
+            // an escaped character is part of the key, even a separator
+            separator += source.get(separator) == '\\' && separator + 1 < stop ? 2 : 1;
+        }
+        int keyEnd = trimEnd(source, start, separator);
+        if (!inSection || separator == stop || keyEnd == start) {
+            throw parseError(source, start, stop, line);
+        }
+        int valueStart = trimStart(source, separator + 1, stop);
+        handler.option(unescape(decode(source, start, keyEnd)), unescape(decode(source, valueStart, stop)));
+        return null;
+    }
+
+    private int skipBom(int pos) {
+        if (pos == 0 && buffer.limit() >= 3
+                && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return pos;
+    }
+
+    private int lineEnd(int pos, int to) {
+        while (pos < to && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int trimStart(ByteBuffer source, int start, int stop) {
+        while (start < stop && isWhitespace(source.get(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(ByteBuffer source, int start, int stop) {
+        while (stop > start && isWhitespace(source.get(stop - 1))) {
+            stop--;
+        }
+        return stop;
+    }
+
+    // same as String.trim(), UTF-8 continuation bytes are negative
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    // an odd number of trailing backslashes
+    private static boolean continues(ByteBuffer source, int start, int stop) {
+        int count = 0;
+        while (stop > start && source.get(stop - 1) == '\\') {
+            count++;
+            stop--;
+        }
+        return (count & 1) == 1;
+    }
+
+    private int append(int length, ByteBuffer source, int start, int stop) {
+        ensureScratch(length + stop - start);
+        for (int i = start; i < stop; i++) {
+            scratch[length++] = source.get(i);
+        }
+        return length;
+    }
+
+    private void ensureScratch(int size) {
+        if (scratch.length < size) {
+            byte[] bigger = new byte[Math.max(size, scratch.length * 2)];
+            System.arraycopy(scratch, 0, bigger, 0, scratch.length);
+            scratch = bigger;
+        }
+    }
+
+    private String decode(ByteBuffer source, int start, int stop) {
+        int length = stop - start;
+        if (source.hasArray()) {
+            return new String(source.array(), source.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        ensureScratch(length);
+        for (int i = 0; i < length; i++) {
+            scratch[i] = source.get(start + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static String unescape(String value) {
+        int backslash = value.indexOf('\\');
+        if (backslash < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        sb.append(value, 0, backslash);
+        for (int i = backslash; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'u':
+                    if (i + 4 < value.length()) {
+                        try {
+                            sb.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException e) {
+                            // not a unicode escape, keep the 'u'
+                        }
+                    }
+                    sb.append(escaped);
+                    break;
+                default:
+                    sb.append(escaped);
+            }
+        }
+        return sb.toString();
+    }
+
+    private IOException parseError(ByteBuffer source, int start, int stop, int line) {
+        return new IOException("parse error (at line: " + line + "): " + decode(source, start, stop));
+    }
+}
@@ -0,0 +1,188 @@
+package github.footloosejava.annoconf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * The sections of one load of an INI file. Instances never change once published.
+ * <p>
+ * A lazy instance only indexes the byte ranges of the sections when the file is opened.
+ * The options of a section are parsed from the mapped file the first time the section is looked up,
+ * so startup time and heap scale with the sections that are used. Syntax errors inside a section
+ * are then reported on that first lookup.
+ */
+abstract class IniSections {
+
+    /**
+     * @return the options of the section or null if the file has no such section
+     */
+    abstract Map<String, String> section(String name);
+
+    /**
+     * Iterates all sections in file order. A lazy instance parses every section.
+     */
+    abstract void forEach(BiConsumer<String, Map<String, String>> consumer);
+
+    /**
+     * @return the section names in file order, without parsing
+     */
+    abstract Set<String> names();
+
+    static IniSections parse(Path path) throws IOException {
+        return new Eager(IniParser.parse(path));
+    }
+
+    static IniSections index(Path path) throws IOException {
+        return new Lazy(IniParser.map(path));
+    }
+
+    /**
+     * Merges the sections of several files like repeated sections of one file: later files take precedence.
+     * A section is merged the first time it is looked up, so lazy files stay lazy.
+     *
+     * @param files the sections of each file in order
+     * @return the merged sections
+     */
+    static IniSections merge(List<IniSections> files) {
+        return files.size() == 1 ? files.get(0) : new Merged(files);
+    }
+
+    private static final class Eager extends IniSections {
+        private final Map<String, Map<String, String>> sections;
+
+        private Eager(Map<String, Map<String, String>> sections) {
+            this.sections = sections;
+        }
+
+        @Override
+        Map<String, String> section(String name) {
+            return sections.get(name);
+        }
+
+        @Override
+        void forEach(BiConsumer<String, Map<String, String>> consumer) {
+            sections.forEach(consumer);
+        }
+
+        @Override
+        Set<String> names() {
+            return sections.keySet();
+        }
+    }
+
+    private static final class Lazy extends IniSections {
+
+        private final ByteBuffer buffer;
+        // a repeated section has several ranges, each is {bodyStart, end, bodyLine}
+        private final Map<String, List<int[]>> ranges = new LinkedHashMap<>();
+        private final Map<String, Map<String, String>> parsed = new ConcurrentHashMap<>();
+
+        private Lazy(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            new IniParser(buffer.duplicate()).index(new IniParser.Handler() {
+                private int[] last;
+
+                @Override
+                public void section(String name, int headerStart, int bodyStart, int bodyLine) {
+                    if (last != null) {
+                        last[1] = headerStart;
+                    }
+                    last = new int[]{bodyStart, buffer.limit(), bodyLine};
+                    ranges.computeIfAbsent(name, k -> new ArrayList<>()).add(last);
+                }
+
+                @Override
+                public void option(String key, String value) {
+                }
+            });
+        }
+
+        @Override
+        Map<String, String> section(String name) {
+            Map<String, String> options = parsed.get(name);
+            if (options != null || !ranges.containsKey(name)) {
+                return options;
+            }
+            return parsed.computeIfAbsent(name, this::parseSection);
+        }
+
+        private Map<String, String> parseSection(String name) {
+            Map<String, String> options = new LinkedHashMap<>();
+            IniParser parser = new IniParser(buffer.duplicate());
+            try {
+                for (int[] range : ranges.get(name)) {
+                    parser.parse(range[0], range[1], range[2], new IniParser.Handler() {
+                        @Override
+                        public void section(String ignored, int headerStart, int bodyStart, int bodyLine) {
+                        }
+
+                        @Override
+                        public void option(String key, String value) {
+                            options.put(key, value);
+                        }
+                    }, true, true);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Exception parsing INI section '" + name + "'", e);
+            }
+            return options;
+        }
+
+        @Override
+        void forEach(BiConsumer<String, Map<String, String>> consumer) {
+            ranges.keySet().forEach(name -> consumer.accept(name, section(name)));
+        }
+
+        @Override
+        Set<String> names() {
+            return ranges.keySet();
+        }
+    }
+
+    private static final class Merged extends IniSections {
+
+        private final List<IniSections> files;
+        private final Set<String> names = new LinkedHashSet<>();
+        private final Map<String, Map<String, String>> merged = new ConcurrentHashMap<>();
+
+        private Merged(List<IniSections> files) {
+            this.files = files;
+            files.forEach(f -> names.addAll(f.names()));
+        }
+
+        @Override
+        Map<String, String> section(String name) {
+            Map<String, String> options = merged.get(name);
+            if (options != null || !names.contains(name)) {
+                return options;
+            }
+            return merged.computeIfAbsent(name, this::mergeSection);
+        }
+
+        private Map<String, String> mergeSection(String name) {
+            Map<String, String> options = new LinkedHashMap<>();
+            for (IniSections file : files) {
+                Map<String, String> section = file.section(name);
+                if (section != null) {
+                    options.putAll(section);
+                }
+            }
+            return options;
+        }
+
+        @Override
+        void forEach(BiConsumer<String, Map<String, String>> consumer) {
+            names.forEach(name -> consumer.accept(name, section(name)));
+        }
+
+        @Override
+        Set<String> names() {
+            return names;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package github.footloosejava.annoconf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the events of a configuration with striped counters and exports them as a JMX MBean.
+ * <pre>
+ * JmxConfigurationMetrics metrics = new JmxConfigurationMetrics().register("app");
+ * INIConfiguration configuration = new INIConfiguration("app.ini").metrics(metrics);
+ * </pre>
+ * Close it to unregister the MBean.
+ * <p>
+ * Reads are counted per key for a bounded number of keys, 1000 by default. Reads of keys beyond the budget are
+ * counted together under {@link #OTHER_KEYS}, so names created per tenant or request cannot grow the metrics
+ * without bound.
+ */
+public class JmxConfigurationMetrics implements ConfigurationMetrics, ConfigurationMetricsMXBean, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JmxConfigurationMetrics.class);
+
+    /**
+     * The key of the reads of all keys beyond the budget in {@link #getReadsPerKey()}.
+     */
+    public static final String OTHER_KEYS = "(other)";
+
+    private final LongAdder[] reads = new LongAdder[Source.values().length];
+    private final LongAdder typedCacheHits = new LongAdder();
+    private final LongAdder typedCacheMisses = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final Map<String, LongAdder> readsPerKey = new ConcurrentHashMap<>();
+    private final LongAdder otherKeys = new LongAdder();
+    private final int maxKeys;
+
+    private volatile long lastLoadMillis;
+    private volatile long lastReloadMillis;
+    private volatile Map<String, Integer> keysPerSection = Collections.emptyMap();
+    private volatile ObjectName registered;
+
+    public JmxConfigurationMetrics() {
+        this(1000);
+    }
+
+    /**
+     * @param maxKeys the number of keys whose reads are counted separately
+     */
+    public JmxConfigurationMetrics(int maxKeys) {
+        if (maxKeys < 0) {
+            throw new IllegalArgumentException("maxKeys must not be negative: " + maxKeys);
+        }
+        this.maxKeys = maxKeys;
+        for (int i = 0; i < reads.length; i++) {
+            reads[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registers the MBean with the platform MBean server as
+     * {@code github.footloosejava.annoconf:type=Configuration,name=<name>}.
+     *
+     * @param name the name of the configuration
+     * @return this metrics
+     */
+    public JmxConfigurationMetrics register(String name) {
+        Objects.requireNonNull(name, "name");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("github.footloosejava.annoconf:type=Configuration,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            registered = objectName;
+        } catch (JMException e) {
+            log.error("Exception registering configuration metrics '" + name + "': reason= {}", e.getMessage());
+            throw new IllegalStateException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Unregisters the MBean, if it was registered.
+     */
+    @Override
+    public void close() {
+        ObjectName objectName = registered;
+        if (objectName != null) {
+            registered = null;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                log.error("Exception unregistering configuration metrics '" + objectName + "': reason= {}", e.getMessage());
+            }
+        }
+    }
+
+    ////////////
+    // events //
+    ////////////
+
+    @Override
+    public void read(String fullyQualifiedName, Source source) {
+        reads[source.ordinal()].increment();
+        perKey(fullyQualifiedName);
+    }
+
+    @Override
+    public void typedRead(String fullyQualifiedName, boolean cached) {
+        if (cached) {
+            typedCacheHits.increment();
+            // a miss resolves the raw value and is counted by that read
+            perKey(fullyQualifiedName);
+        } else {
+            typedCacheMisses.increment();
+        }
+    }
+
+    private void perKey(String fullyQualifiedName) {
+        LongAdder adder = readsPerKey.get(fullyQualifiedName);
+        if (adder == null) {
+            // OVER BUDGET - concurrent first reads may admit a few keys more
+            if (readsPerKey.size() >= maxKeys) {
+                otherKeys.increment();
+                return;
+            }
+            adder = readsPerKey.computeIfAbsent(fullyQualifiedName, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    @Override
+    public void parseFailure(String fullyQualifiedName, String value) {
+        parseFailures.increment();
+    }
+
+    @Override
+    public void loaded(String source, long nanos, boolean reload, Map<String, Integer> keysPerSection) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (reload) {
+            reloads.increment();
+            lastReloadMillis = millis;
+        } else {
+            loads.increment();
+            lastLoadMillis = millis;
+        }
+        this.keysPerSection = Collections.unmodifiableMap(new TreeMap<>(keysPerSection));
+    }
+
+    ///////////
+    // MBean //
+    ///////////
+
+    @Override
+    public long getReads() {
+        long sum = 0;
+        for (LongAdder adder : reads) {
+            sum += adder.sum();
+        }
+        return sum + typedCacheHits.sum();
+    }
+
+    @Override
+    public long getProgrammaticReads() {
+        return reads[Source.PROGRAMMATIC.ordinal()].sum();
+    }
+
+    @Override
+    public long getIniReads() {
+        return reads[Source.INI.ordinal()].sum();
+    }
+
+    @Override
+    public long getSnapshotReads() {
+        return reads[Source.SNAPSHOT.ordinal()].sum();
+    }
+
+    @Override
+    public long getMissingReads() {
+        return reads[Source.MISSING.ordinal()].sum();
+    }
+
+    @Override
+    public long getTypedCacheHits() {
+        return typedCacheHits.sum();
+    }
+
+    @Override
+    public long getTypedCacheMisses() {
+        return typedCacheMisses.sum();
+    }
+
+    @Override
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    @Override
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    @Override
+    public long getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+
+    @Override
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    @Override
+    public long getLastReloadMillis() {
+        return lastReloadMillis;
+    }
+
+    @Override
+    public Map<String, Long> getReadsPerKey() {
+        Map<String, Long> counts = new TreeMap<>();
+        readsPerKey.forEach((k, v) -> counts.put(k, v.sum()));
+        long other = otherKeys.sum();
+        if (other > 0) {
+            counts.put(OTHER_KEYS, other);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Integer> getKeysPerSection() {
+        return keysPerSection;
+    }
+
+    /**
+     * Resets the counters. The durations of the last loads and the keys per section are kept.
+     */
+    @Override
+    public void reset() {
+        for (LongAdder adder : reads) {
+            adder.reset();
+        }
+        typedCacheHits.reset();
+        typedCacheMisses.reset();
+        parseFailures.reset();
+        loads.reset();
+        reloads.reset();
+        readsPerKey.clear();
+        otherKeys.reset();
+    }
+}
@@ -0,0 +1,365 @@
+package github.footloosejava.annoconf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * A configuration with an explicit precedence of layers: {@link Layer#RUNTIME} over {@link Layer#OVERRIDES}
+ * over {@link Layer#FILE} over {@link Layer#DEFAULTS}.
+ * <p>
+ * Every layer is an immutable table. A write copies the layer it changes, merges all layers into one
+ * {@link ConfigurationSnapshot} and publishes both through a single volatile reference, so reads take no locks
+ * and always see one consistent version. Writes are serialized; write many values at once with
+ * {@link #putAll(Layer, Map)} to publish them as one version.
+ * <p>
+ * {@link #putDefaults(Configurable[])} writes to {@link Layer#DEFAULTS} and the put methods write to
+ * {@link Layer#RUNTIME}, so unlike {@link INIConfiguration} a file value is never shadowed by a default.
+ */
+public class LayeredConfiguration implements Configuration {
+
+    private static final Logger log = LoggerFactory.getLogger(LayeredConfiguration.class);
+
+    private static final ConfigurationSnapshot EMPTY = new ConfigurationSnapshot(Collections.emptyMap(), Collections.emptyList());
+
+    public enum Layer {
+        DEFAULTS, FILE, OVERRIDES, RUNTIME
+    }
+
+    private final Object writeLock = new Object();
+    private final ChangeNotifier notifier = new ChangeNotifier();
+
+    private volatile Version version = new Version(new ConfigurationSnapshot[]{EMPTY, EMPTY, EMPTY, EMPTY});
+    private volatile boolean frozen;
+
+    // ONE PUBLISHED STATE - the layers and their merge always change together
+    private static final class Version {
+        private final ConfigurationSnapshot[] layers;
+        private final ConfigurationSnapshot merged;
+
+        private Version(ConfigurationSnapshot[] layers) {
+            this.layers = layers;
+            Map<String, String> resolved = new HashMap<>();
+            Set<String> listed = new HashSet<>();
+            // LOWEST PRECEDENCE FIRST - later layers replace earlier values
+            for (ConfigurationSnapshot layer : layers) {
+                layer.forEachResolved(resolved::put);
+                layer.forEach((k, v) -> listed.add(k));
+            }
+            this.merged = new ConfigurationSnapshot(resolved, listed);
+        }
+    }
+
+    /**
+     * @param layer the layer
+     * @return the values of the layer alone
+     */
+    public ConfigurationSnapshot layer(Layer layer) {
+        return version.layers[layer.ordinal()];
+    }
+
+    /**
+     * Replaces a whole layer with the resolved values of another configuration,
+     * e.g. an {@link INIConfiguration} with its namespace mappings for {@link Layer#FILE}.
+     *
+     * @param layer  the layer to replace
+     * @param source the configuration
+     * @return this configuration
+     */
+    public LayeredConfiguration load(Layer layer, Configuration source) {
+        return replace(layer, source.snapshot());
+    }
+
+    /**
+     * Replaces a whole layer with the values of the sources, later sources take precedence over earlier ones.
+     * The sources are read once and merged into the layer.
+     * <pre>
+     * configuration.load(Layer.OVERRIDES, ConfigurationSource.systemProperties("app."),
+     *         ConfigurationSource.environment("APP_", Settings.values()));
+     * </pre>
+     *
+     * @param layer   the layer to replace
+     * @param sources the sources
+     * @return this configuration
+     */
+    public LayeredConfiguration load(Layer layer, ConfigurationSource... sources) {
+        Map<String, String> values = new HashMap<>();
+        for (ConfigurationSource source : sources) {
+            try {
+                values.putAll(source.load());
+            } catch (IOException e) {
+                log.error("Exception loading configuration source into " + layer + ": reason= {}", e.getMessage());
+                throw new UncheckedIOException(e);
+            }
+        }
+        return replace(layer, new ConfigurationSnapshot(values, values.keySet()));
+    }
+
+    private LayeredConfiguration replace(Layer layer, ConfigurationSnapshot values) {
+        synchronized (writeLock) {
+            checkNotFrozen();
+            Version before = version;
+            ConfigurationSnapshot[] layers = before.layers.clone();
+            layers[layer.ordinal()] = values;
+            Version after = new Version(layers);
+            version = after;
+            if (notifier.hasSubscribers()) {
+                notifier.changed(before.merged, after.merged);
+            }
+        }
+        log.debug("loaded {} values into {}", values.size(), layer);
+        return this;
+    }
+
+    /**
+     * Writes many values to one layer and publishes them as one version.
+     *
+     * @param layer  the layer
+     * @param values the values by fully qualified name, a null value removes the name from the layer
+     * @return this configuration
+     */
+    public LayeredConfiguration putAll(Layer layer, Map<String, String> values) {
+        if (values.isEmpty()) {
+            return this;
+        }
+        synchronized (writeLock) {
+            checkNotFrozen();
+            Version before = version;
+            ConfigurationSnapshot old = before.layers[layer.ordinal()];
+            Map<String, String> resolved = new HashMap<>();
+            old.forEachResolved(resolved::put);
+            Set<String> listed = new HashSet<>();
+            old.forEach((k, v) -> listed.add(k));
+            values.forEach((k, v) -> {
+                if (v == null) {
+                    resolved.remove(k);
+                    listed.remove(k);
+                } else {
+                    resolved.put(k, v);
+                    listed.add(k);
+                }
+            });
+            ConfigurationSnapshot[] layers = before.layers.clone();
+            layers[layer.ordinal()] = new ConfigurationSnapshot(resolved, listed);
+            Version after = new Version(layers);
+            version = after;
+            if (notifier.hasSubscribers()) {
+                values.keySet().forEach(k -> notifier.changed(k, before.merged.stringFullyQualifiedName(k),
+                        after.merged.stringFullyQualifiedName(k)));
+            }
+        }
+        log.debug("put {} values into {}", values.size(), layer);
+        return this;
+    }
+
+    /**
+     * @param layer              the layer
+     * @param fullyQualifiedName the name
+     * @param value              the value, null removes the name from the layer
+     * @return this configuration
+     */
+    public LayeredConfiguration put(Layer layer, String fullyQualifiedName, String value) {
+        return putAll(layer, Collections.singletonMap(Objects.requireNonNull(fullyQualifiedName, "fullyQualifiedName"), value));
+    }
+
+    /**
+     * A batch that writes to {@link Layer#RUNTIME} and is published as one version.
+     */
+    @Override
+    public ConfigurationBatch batch() {
+        return batch(Layer.RUNTIME);
+    }
+
+    /**
+     * @param layer the layer the batch writes to
+     * @return a batch that is published as one version
+     */
+    public ConfigurationBatch batch(Layer layer) {
+        return new ConfigurationBatch(values -> putAll(layer, values));
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("This configuration has been frozen and is now immutable.");
+        }
+    }
+
+    /**
+     * @param executor the executor that delivers changes to subscribers, by default a shared daemon thread
+     * @return this configuration
+     */
+    public LayeredConfiguration listenerExecutor(Executor executor) {
+        notifier.executor(executor);
+        return this;
+    }
+
+    @Override
+    public LayeredConfiguration putDefaults(Configurable[] properties) {
+        return putDefaults(Stream.of(properties).map(Configurable::getConfProps).toArray(ConfProps[]::new));
+    }
+
+    /**
+     * Writes the defaults to {@link Layer#DEFAULTS}. Null defaults are skipped.
+     */
+    @Override
+    public LayeredConfiguration putDefaults(ConfProps[] properties) {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        for (ConfProps prop : properties) {
+            if (prop.getDefaultValue() != null) {
+                defaults.put(prop.getFullyQualifiedName(), prop.getDefaultValue());
+            }
+        }
+        return putAll(Layer.DEFAULTS, defaults);
+    }
+
+    @Override
+    public void freeze() {
+        frozen = true;
+    }
+
+    @Override
+    public ConfigurationSnapshot snapshot() {
+        return version.merged;
+    }
+
+    @Override
+    public Set<String> keys(Configurable[] includeKeys, Configurable[]... more) {
+        return version.merged.keys(includeKeys, more);
+    }
+
+    @Override
+    public Set<String> keys(List<Configurable> includeKeys) {
+        return version.merged.keys(includeKeys);
+    }
+
+    @Override
+    public String allSettings() {
+        return version.merged.allSettings();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> consumer) {
+        version.merged.forEach(consumer);
+    }
+
+    @Override
+    public void forEachWithPrefix(String prefix, BiConsumer<String, String> consumer) {
+        version.merged.forEachWithPrefix(prefix, consumer);
+    }
+
+    @Override
+    public void put(Configurable configurable) {
+        put(configurable, configurable.getConfProps().getDefaultValue());
+    }
+
+    @Override
+    public void put(Configurable key, String value) {
+        putFullyQualifiedName(key.getConfProps().getFullyQualifiedName(), value);
+    }
+
+    /**
+     * Writes to {@link Layer#RUNTIME}, a null value removes the runtime value.
+     */
+    @Override
+    public void putFullyQualifiedName(String fullyQualifiedName, String value) {
+        put(Layer.RUNTIME, fullyQualifiedName, value);
+    }
+
+    @Override
+    public boolean putIfNotNull(Configurable configurable) {
+        return putIfNotNull(configurable, configurable.getConfProps().getDefaultValue());
+    }
+
+    @Override
+    public boolean putIfNotNull(Configurable key, String value) {
+        if (value != null) {
+            put(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public ConfigurationSubscription subscribeFullyQualifiedName(String fullyQualifiedName, ConfigurationListener listener) {
+        return notifier.subscribeKey(fullyQualifiedName, listener);
+    }
+
+    @Override
+    public ConfigurationSubscription subscribeNamespace(String namespacePrefix, ConfigurationListener listener) {
+        return notifier.subscribePrefix(namespacePrefix, listener);
+    }
+
+    ////////////////////////
+    // using Configurable //
+    ////////////////////////
+
+    @Override
+    public String string(Configurable key) {
+        return version.merged.string(key);
+    }
+
+    @Override
+    public float floating(Configurable key) {
+        return version.merged.floating(key);
+    }
+
+    @Override
+    public double doubling(Configurable key) {
+        return version.merged.doubling(key);
+    }
+
+    @Override
+    public int integer(Configurable key) {
+        return version.merged.integer(key);
+    }
+
+    @Override
+    public long longing(Configurable key) {
+        return version.merged.longing(key);
+    }
+
+    @Override
+    public boolean booling(Configurable key) {
+        return version.merged.booling(key);
+    }
+
+    ////////////////////////////////
+    // using fully qualified name //
+    ////////////////////////////////
+
+    @Override
+    public String stringFullyQualifiedName(String fullyQualifiedName) {
+        return version.merged.stringFullyQualifiedName(fullyQualifiedName);
+    }
+
+    @Override
+    public float floatingFullyQualifiedName(String fullyQualifiedName) {
+        return version.merged.floatingFullyQualifiedName(fullyQualifiedName);
+    }
+
+    @Override
+    public double doublingFullyQualifiedName(String fullyQualifiedName) {
+        return version.merged.doublingFullyQualifiedName(fullyQualifiedName);
+    }
+
+    @Override
+    public int integerFullyQualifiedName(String fullyQualifiedName) {
+        return version.merged.integerFullyQualifiedName(fullyQualifiedName);
+    }
+
+    @Override
+    public long longingFullyQualifiedName(String fullyQualifiedName) {
+        return version.merged.longingFullyQualifiedName(fullyQualifiedName);
+    }
+
+    @Override
+    public boolean boolingFullyQualifiedName(String fullyQualifiedName) {
+        return version.merged.boolingFullyQualifiedName(fullyQualifiedName);
+    }
+}
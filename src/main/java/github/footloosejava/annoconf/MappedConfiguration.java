@@ -0,0 +1,272 @@
+package github.footloosejava.annoconf;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * A read only configuration served from a memory-mapped, precompiled binary file.
+ * <p>
+ * {@link #write(Configuration, Path)} compiles a configuration, after its defaults and namespace mappings
+ * have been applied, into a file with an interned string table and a key index sorted by hash.
+ * {@link #open(Path)} maps such a file without parsing it: a lookup is a binary search over the index and a
+ * comparison of the key bytes in the mapped buffer. Strings are decoded on first use only.
+ * <p>
+ * File layout, all ints big endian:
+ * <pre>
+ * magic, version, stringCount, entryCount, listedCount
+ * stringOffsets[stringCount]
+ * entries[entryCount] of {keyHash, keyString, valueString}, sorted by keyHash then key
+ * listed[listedCount] entry numbers of the keys reported by forEach, sorted by key
+ * strings of {byteLength, UTF-8 bytes}
+ * </pre>
+ */
+public final class MappedConfiguration extends ImmutableConfiguration {
+
+    private static final int MAGIC = 0x414E4346; // ANCF
+    private static final int VERSION = 1;
+    private static final int HEADER = 5 * 4;
+    private static final int ENTRY = 3 * 4;
+
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int listedCount;
+    private final int stringsStart;
+    private final int entriesStart;
+    private final int listedStart;
+
+    // DECODED STRINGS - filled on first use, racy but Strings are safely published
+    private final String[] strings;
+
+    private MappedConfiguration(ByteBuffer buffer, int stringCount, int entryCount) {
+        super("This configuration is a read only compiled file.", entryCount);
+        this.buffer = buffer;
+        this.entryCount = entryCount;
+        this.listedCount = buffer.getInt(16);
+        this.stringsStart = HEADER;
+        this.entriesStart = stringsStart + stringCount * 4;
+        this.listedStart = entriesStart + entryCount * ENTRY;
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * @param path a file written by {@link #write(Configuration, Path)}
+     * @return the mapped configuration
+     * @throws IOException if the file cannot be mapped or is not a compiled configuration
+     */
+    public static MappedConfiguration open(Path path) throws IOException {
+        ByteBuffer buffer = IniParser.map(path);
+        if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a compiled configuration (version " + VERSION + "): " + path);
+        }
+        return new MappedConfiguration(buffer, buffer.getInt(8), buffer.getInt(12));
+    }
+
+    /**
+     * Compiles an INI file from the command line.
+     * <pre>
+     * MappedConfiguration &lt;ini file&gt; &lt;compiled file&gt; [namespace=section ...]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: MappedConfiguration <ini file> <compiled file> [namespace=section ...]");
+            System.exit(1);
+        }
+        INIConfiguration configuration = new INIConfiguration(args[0]);
+        for (int i = 2; i < args.length; i++) {
+            configuration.addNamespaceToINIMapping(StringUtils.substringBefore(args[i], "="),
+                    StringUtils.substringAfter(args[i], "="));
+        }
+        write(configuration, Paths.get(args[1]));
+    }
+
+    /**
+     * Compiles the resolved values of the configuration into a binary file.
+     * Every fully qualified name that resolves to a value is written, including names reached through
+     * namespace mappings, so the compiled file answers lookups exactly like the configuration.
+     *
+     * @param configuration the configuration
+     * @param path          the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Configuration configuration, Path path) throws IOException {
+        ConfigurationSnapshot snapshot = configuration.snapshot();
+
+        List<String[]> entries = new ArrayList<>();
+        snapshot.forEachResolved((k, v) -> entries.add(new String[]{k, v}));
+        entries.sort((a, b) -> {
+            int c = Integer.compare(a[0].hashCode(), b[0].hashCode());
+            return c != 0 ? c : a[0].compareTo(b[0]);
+        });
+        Map<String, Integer> entryNumbers = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            entryNumbers.put(entries.get(i)[0], i);
+        }
+        List<Integer> listed = new ArrayList<>();
+        snapshot.forEach((k, v) -> listed.add(entryNumbers.get(k)));
+
+        // INTERN STRINGS - keys and values share one table
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        List<byte[]> encoded = new ArrayList<>();
+        for (String[] entry : entries) {
+            for (String s : entry) {
+                ids.computeIfAbsent(s, k -> {
+                    encoded.add(k.getBytes(StandardCharsets.UTF_8));
+                    return encoded.size() - 1;
+                });
+            }
+        }
+
+        int dataStart = HEADER + encoded.size() * 4 + entries.size() * ENTRY + listed.size() * 4;
+        int size = dataStart;
+        for (byte[] bytes : encoded) {
+            size += 4 + bytes.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(VERSION).putInt(encoded.size()).putInt(entries.size()).putInt(listed.size());
+        int offset = dataStart;
+        for (byte[] bytes : encoded) {
+            out.putInt(offset);
+            offset += 4 + bytes.length;
+        }
+        for (String[] entry : entries) {
+            out.putInt(entry[0].hashCode()).putInt(ids.get(entry[0])).putInt(ids.get(entry[1]));
+        }
+        listed.forEach(out::putInt);
+        for (byte[] bytes : encoded) {
+            out.putInt(bytes.length).put(bytes);
+        }
+        Files.write(path, out.array());
+    }
+
+    private int hashAt(int entry) {
+        return buffer.getInt(entriesStart + entry * ENTRY);
+    }
+
+    private int keyAt(int entry) {
+        return buffer.getInt(entriesStart + entry * ENTRY + 4);
+    }
+
+    private int valueIdAt(int entry) {
+        return buffer.getInt(entriesStart + entry * ENTRY + 8);
+    }
+
+    private String string(int id) {
+        String s = strings[id];
+        if (s == null) {
+            int offset = buffer.getInt(stringsStart + id * 4);
+            byte[] bytes = new byte[buffer.getInt(offset)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(offset + 4 + i);
+            }
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    // compares ASCII bytes in place and decodes only keys with other characters
+    private boolean matches(int id, String s) {
+        String decoded = strings[id];
+        if (decoded != null) {
+            return decoded.equals(s);
+        }
+        int offset = buffer.getInt(stringsStart + id * 4);
+        int length = buffer.getInt(offset);
+        if (length < s.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(offset + 4 + i);
+            if (b < 0) {
+                return string(id).equals(s);
+            }
+            if (i >= s.length() || s.charAt(i) != b) {
+                return false;
+            }
+        }
+        return length == s.length();
+    }
+
+    @Override
+    int indexOf(String fullyQualifiedName) {
+        int h = fullyQualifiedName.hashCode();
+        // FIRST ENTRY WITH THE HASH
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (hashAt(mid) < h) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < entryCount && hashAt(i) == h; i++) {
+            if (matches(keyAt(i), fullyQualifiedName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    String valueAt(int slot) {
+        return slot < 0 ? null : string(valueIdAt(slot));
+    }
+
+    public int size() {
+        return listedCount;
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < listedCount; i++) {
+            int entry = buffer.getInt(listedStart + i * 4);
+            consumer.accept(string(keyAt(entry)), string(valueIdAt(entry)));
+        }
+    }
+
+    @Override
+    public void forEachWithPrefix(String prefix, BiConsumer<String, String> consumer) {
+        Objects.requireNonNull(prefix, "prefix");
+        // FIRST LISTED KEY NOT BEFORE THE PREFIX - the listed entries are sorted by key
+        int low = 0;
+        int high = listedCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (string(keyAt(buffer.getInt(listedStart + mid * 4))).compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < listedCount; i++) {
+            int entry = buffer.getInt(listedStart + i * 4);
+            String key = string(keyAt(entry));
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            consumer.accept(key, string(valueIdAt(entry)));
+        }
+    }
+
+    @Override
+    public ConfigurationSnapshot snapshot() {
+        Map<String, String> resolved = new HashMap<>();
+        for (int i = 0; i < entryCount; i++) {
+            resolved.put(string(keyAt(i)), string(valueIdAt(i)));
+        }
+        List<String> listed = new ArrayList<>();
+        forEach((k, v) -> listed.add(k));
+        return new ConfigurationSnapshot(resolved, listed);
+    }
+}
@@ -0,0 +1,426 @@
+package github.footloosejava.annoconf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * A few overrides on top of a shared base configuration, e.g. one per tenant or per request.
+ * <p>
+ * Only the overrides are stored, in a small open-addressing table that is replaced as a whole on every write,
+ * so creating an overlay costs time in proportion to its overrides and reads take no locks.
+ * A name without an override is read from the base, which is never copied and keeps its own caches.
+ * Changes of the base are seen immediately, except for the names this overlay overrides.
+ * <pre>
+ * Configuration tenant = new OverlayConfiguration(shared, Collections.singletonMap("app-THREADS", "4"));
+ * </pre>
+ */
+public class OverlayConfiguration implements Configuration {
+
+    private static final Logger log = LoggerFactory.getLogger(OverlayConfiguration.class);
+
+    private final Configuration base;
+    private final Object writeLock = new Object();
+    private final ChangeNotifier notifier = new ChangeNotifier();
+
+    private volatile Deltas deltas;
+    private volatile boolean frozen;
+
+    public OverlayConfiguration(Configuration base) {
+        this(base, Collections.emptyMap());
+    }
+
+    /**
+     * @param base      the configuration read for every name without an override
+     * @param overrides the overrides by fully qualified name, null values are ignored
+     */
+    public OverlayConfiguration(Configuration base, Map<String, String> overrides) {
+        this.base = Objects.requireNonNull(base, "base");
+        this.deltas = new Deltas(overrides);
+    }
+
+    /**
+     * @return the configuration this overlay reads through to
+     */
+    public Configuration base() {
+        return base;
+    }
+
+    /**
+     * @return the number of overrides
+     */
+    public int size() {
+        return deltas.size;
+    }
+
+    /**
+     * Writes many overrides and publishes them as one table.
+     *
+     * @param values the overrides by fully qualified name, a null value removes the override
+     */
+    private void putAll(Map<String, String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            checkNotFrozen();
+            boolean notify = notifier.hasSubscribers();
+            Map<String, String> oldValues = new HashMap<>();
+            if (notify) {
+                values.keySet().forEach(k -> oldValues.put(k, stringFullyQualifiedName(k)));
+            }
+            deltas = deltas.with(values);
+            if (notify) {
+                oldValues.forEach((k, v) -> notifier.changed(k, v, stringFullyQualifiedName(k)));
+            }
+        }
+        log.debug("put {} overrides", values.size());
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("This configuration has been frozen and is now immutable.");
+        }
+    }
+
+    /**
+     * @param executor the executor that delivers changes of the overrides to subscribers
+     * @return this configuration
+     */
+    public OverlayConfiguration listenerExecutor(Executor executor) {
+        notifier.executor(executor);
+        return this;
+    }
+
+    @Override
+    public OverlayConfiguration putDefaults(Configurable[] properties) {
+        return putDefaults(Stream.of(properties).map(Configurable::getConfProps).toArray(ConfProps[]::new));
+    }
+
+    /**
+     * Defaults only become overrides for names the base has no value for, so they never shadow the base.
+     */
+    @Override
+    public OverlayConfiguration putDefaults(ConfProps[] properties) {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        for (ConfProps prop : properties) {
+            if (prop.getDefaultValue() != null && base.stringFullyQualifiedName(prop.getFullyQualifiedName()) == null) {
+                defaults.put(prop.getFullyQualifiedName(), prop.getDefaultValue());
+            }
+        }
+        putAll(defaults);
+        return this;
+    }
+
+    /**
+     * Freezes the overrides. The base is not frozen and its changes are still seen.
+     */
+    @Override
+    public void freeze() {
+        frozen = true;
+    }
+
+    @Override
+    public ConfigurationSnapshot snapshot() {
+        ConfigurationSnapshot b = base.snapshot();
+        Map<String, String> resolved = new HashMap<>();
+        b.forEachResolved(resolved::put);
+        Set<String> listed = new HashSet<>();
+        b.forEach((k, v) -> listed.add(k));
+        deltas.forEach((k, v) -> {
+            resolved.put(k, v);
+            listed.add(k);
+        });
+        return new ConfigurationSnapshot(resolved, listed);
+    }
+
+    @Override
+    public ConfigurationBatch batch() {
+        return new ConfigurationBatch(this::putAll);
+    }
+
+    @Override
+    public Set<String> keys(Configurable[] configurables, Configurable[]... moreConfigurables) {
+        List<Configurable> list = new ArrayList<>();
+        if (configurables != null) {
+            Collections.addAll(list, configurables);
+        }
+        if (moreConfigurables != null) {
+            for (Configurable[] ca : moreConfigurables) {
+                if (ca != null) {
+                    Collections.addAll(list, ca);
+                }
+            }
+        }
+        return keys(list);
+    }
+
+    @Override
+    public Set<String> keys(List<Configurable> includeKeys) {
+        Set<String> keys = new TreeSet<>();
+        forEach((k, v) -> keys.add(k));
+        includeKeys.forEach(it -> keys.add(it.getConfProps().getFullyQualifiedName()));
+        return keys;
+    }
+
+    @Override
+    public String allSettings() {
+        final StringBuilder settings = new StringBuilder();
+        forEach((k, v) -> settings.append("key= '").append(k)
+                .append("'\t\t -> ")
+                .append("value= '").append(v).append("'")
+                .append("\n"));
+        return settings.toString();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, String> consumer) {
+        SortedMap<String, String> merged = new TreeMap<>();
+        base.forEach(merged::put);
+        deltas.forEach(merged::put);
+        merged.forEach(consumer);
+    }
+
+    @Override
+    public void forEachWithPrefix(String prefix, BiConsumer<String, String> consumer) {
+        SortedMap<String, String> merged = new TreeMap<>();
+        base.forEachWithPrefix(prefix, merged::put);
+        deltas.forEach((k, v) -> {
+            if (k.startsWith(prefix)) {
+                merged.put(k, v);
+            }
+        });
+        merged.forEach(consumer);
+    }
+
+    @Override
+    public void put(Configurable configurable) {
+        put(configurable, configurable.getConfProps().getDefaultValue());
+    }
+
+    @Override
+    public void put(Configurable key, String value) {
+        putFullyQualifiedName(key.getConfProps().getFullyQualifiedName(), value);
+    }
+
+    /**
+     * Writes an override, a null value removes the override so the base value is seen again.
+     */
+    @Override
+    public void putFullyQualifiedName(String fullyQualifiedName, String value) {
+        putAll(Collections.singletonMap(Objects.requireNonNull(fullyQualifiedName, "fullyQualifiedName"), value));
+    }
+
+    @Override
+    public boolean putIfNotNull(Configurable configurable) {
+        return putIfNotNull(configurable, configurable.getConfProps().getDefaultValue());
+    }
+
+    @Override
+    public boolean putIfNotNull(Configurable key, String value) {
+        if (value != null) {
+            put(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public ConfigurationSubscription subscribeFullyQualifiedName(String fullyQualifiedName, ConfigurationListener listener) {
+        ConfigurationSubscription own = notifier.subscribeKey(fullyQualifiedName, listener);
+        ConfigurationSubscription inherited = base.subscribeFullyQualifiedName(fullyQualifiedName, notOverridden(listener));
+        return () -> {
+            own.close();
+            inherited.close();
+        };
+    }
+
+    @Override
+    public ConfigurationSubscription subscribeNamespace(String namespacePrefix, ConfigurationListener listener) {
+        ConfigurationSubscription own = notifier.subscribePrefix(namespacePrefix, listener);
+        ConfigurationSubscription inherited = base.subscribeNamespace(namespacePrefix, notOverridden(listener));
+        return () -> {
+            own.close();
+            inherited.close();
+        };
+    }
+
+    // CHANGES OF THE BASE ARE HIDDEN WHERE THIS OVERLAY OVERRIDES THEM
+    private ConfigurationListener notOverridden(ConfigurationListener listener) {
+        return changes -> {
+            Deltas d = deltas;
+            List<ConfigurationChange> visible = new ArrayList<>(changes.size());
+            for (ConfigurationChange change : changes) {
+                if (d.indexOf(change.key()) < 0) {
+                    visible.add(change);
+                }
+            }
+            if (!visible.isEmpty()) {
+                listener.onChange(visible);
+            }
+        };
+    }
+
+    ////////////////////////
+    // using Configurable //
+    ////////////////////////
+
+    @Override
+    public String string(Configurable key) {
+        return stringFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public float floating(Configurable key) {
+        return floatingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public double doubling(Configurable key) {
+        return doublingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public int integer(Configurable key) {
+        return integerFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public long longing(Configurable key) {
+        return longingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    @Override
+    public boolean booling(Configurable key) {
+        return boolingFullyQualifiedName(key.getConfProps().getFullyQualifiedName());
+    }
+
+    ////////////////////////////////
+    // using fully qualified name //
+    ////////////////////////////////
+
+    @Override
+    public String stringFullyQualifiedName(String fullyQualifiedName) {
+        Deltas d = deltas;
+        int slot = d.indexOf(fullyQualifiedName);
+        return slot < 0 ? base.stringFullyQualifiedName(fullyQualifiedName) : d.values[slot];
+    }
+
+    @Override
+    public float floatingFullyQualifiedName(String fullyQualifiedName) {
+        Deltas d = deltas;
+        int slot = d.indexOf(fullyQualifiedName);
+        return slot < 0 ? base.floatingFullyQualifiedName(fullyQualifiedName) : d.typed.floating(slot, d.values[slot]);
+    }
+
+    @Override
+    public double doublingFullyQualifiedName(String fullyQualifiedName) {
+        Deltas d = deltas;
+        int slot = d.indexOf(fullyQualifiedName);
+        return slot < 0 ? base.doublingFullyQualifiedName(fullyQualifiedName) : d.typed.doubling(slot, d.values[slot]);
+    }
+
+    @Override
+    public int integerFullyQualifiedName(String fullyQualifiedName) {
+        Deltas d = deltas;
+        int slot = d.indexOf(fullyQualifiedName);
+        return slot < 0 ? base.integerFullyQualifiedName(fullyQualifiedName) : d.typed.integer(slot, d.values[slot]);
+    }
+
+    @Override
+    public long longingFullyQualifiedName(String fullyQualifiedName) {
+        Deltas d = deltas;
+        int slot = d.indexOf(fullyQualifiedName);
+        return slot < 0 ? base.longingFullyQualifiedName(fullyQualifiedName) : d.typed.longing(slot, d.values[slot]);
+    }
+
+    @Override
+    public boolean boolingFullyQualifiedName(String fullyQualifiedName) {
+        Deltas d = deltas;
+        int slot = d.indexOf(fullyQualifiedName);
+        return slot < 0 ? base.boolingFullyQualifiedName(fullyQualifiedName) : d.typed.booling(slot, d.values[slot]);
+    }
+
+    /**
+     * The overrides in an open-addressing table, power of two sized, linear probing, at most half full.
+     * Never changed once published; a write builds a new table.
+     */
+    private static final class Deltas {
+
+        private final String[] keys;
+        private final String[] values;
+        private final int[] hashes;
+        private final int mask;
+        private final int size;
+        // PARSED OVERRIDES - one per slot, filled on first typed read
+        private final TypedValueCache typed;
+
+        private Deltas(Map<String, String> overrides) {
+            int count = 0;
+            for (String value : overrides.values()) {
+                if (value != null) {
+                    count++;
+                }
+            }
+            int capacity = Integer.highestOneBit(Math.max(1, count * 2 - 1)) << 1;
+            this.keys = new String[capacity];
+            this.values = new String[capacity];
+            this.hashes = new int[capacity];
+            this.mask = capacity - 1;
+            this.size = count;
+            this.typed = new TypedValueCache(capacity);
+            overrides.forEach((key, value) -> {
+                if (value != null) {
+                    int h = hash(key);
+                    int i = h & mask;
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = key;
+                    values[i] = value;
+                    hashes[i] = h;
+                }
+            });
+        }
+
+        private static int hash(String key) {
+            int h = key.hashCode();
+            return h ^ (h >>> 16);
+        }
+
+        private int indexOf(String fullyQualifiedName) {
+            if (size == 0) {
+                return -1;
+            }
+            int h = hash(fullyQualifiedName);
+            int i = h & mask;
+            String k;
+            while ((k = keys[i]) != null) {
+                if (hashes[i] == h && fullyQualifiedName.equals(k)) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private Deltas with(Map<String, String> changes) {
+            Map<String, String> next = new HashMap<>(size + changes.size());
+            forEach(next::put);
+            next.putAll(changes);
+            return new Deltas(next);
+        }
+
+        private void forEach(BiConsumer<String, String> consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package github.footloosejava.annoconf;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parsed primitive values stored in slots, one array per primitive type.
+ * <p>
+ * A slot is filled on the first typed read of its value and is published through a per-slot flag,
+ * so a reader that sees the flag also sees the value. The cache holds no raw values: callers pass the
+ * raw value in. A caller whose raw values change either discards the whole cache, or takes a {@link #stamp(int)}
+ * before it reads a raw value and {@link #block(int) blocks} the slot around every change of it: a value parsed
+ * from a raw value read before or during a change is then not cached.
+ * A negative slot means the value is not cached and is always parsed.
+ */
+final class TypedValueCache {
+
+    private static final int INT = 1;
+    private static final int LONG = 1 << 1;
+    private static final int FLOAT = 1 << 2;
+    private static final int DOUBLE = 1 << 3;
+    private static final int BOOLEAN = 1 << 4;
+
+    // PER SLOT STATE - the parsed flags, a filling flag per type, the blocked flag and a generation above them.
+    // A filler claims its type before it writes the array and only publishes if the generation did not change.
+    // A block clears the parsed flags but keeps the filling flags, so no second filler writes the array until
+    // a stale one has let go of it
+    private static final int FILLING_SHIFT = 5;
+    private static final int FILLING = 0x1F << FILLING_SHIFT;
+    private static final int BLOCKED = 1 << 10;
+    private static final int GENERATION = 1 << 11;
+    private static final int GENERATION_MASK = -GENERATION;
+
+    private final AtomicIntegerArray parsed;
+    private final int[] ints;
+    private final long[] longs;
+    private final float[] floats;
+    private final double[] doubles;
+    private final boolean[] booleans;
+
+    TypedValueCache(int capacity) {
+        this.parsed = new AtomicIntegerArray(capacity);
+        this.ints = new int[capacity];
+        this.longs = new long[capacity];
+        this.floats = new float[capacity];
+        this.doubles = new double[capacity];
+        this.booleans = new boolean[capacity];
+    }
+
+    int capacity() {
+        return ints.length;
+    }
+
+    private boolean has(int slot, int type) {
+        return (parsed.get(slot) & type) != 0;
+    }
+
+    /**
+     * @param slot the slot
+     * @return the state to pass to a fill, taken before the raw value is read
+     */
+    int stamp(int slot) {
+        return slot >= 0 && slot < capacity() ? parsed.get(slot) : BLOCKED;
+    }
+
+    /**
+     * Starts a change of the raw value of the slot: the parsed values are dropped and no value is cached until
+     * {@link #unblock(int)}. Changes of one slot must not overlap.
+     */
+    void block(int slot) {
+        if (slot < 0 || slot >= capacity()) {
+            return;
+        }
+        int flags;
+        do {
+            flags = parsed.get(slot);
+        } while (!parsed.compareAndSet(slot, flags, ((flags & GENERATION_MASK) + GENERATION) | (flags & FILLING) | BLOCKED));
+    }
+
+    /**
+     * Ends a change of the raw value of the slot, values parsed from the new raw value are cached again.
+     */
+    void unblock(int slot) {
+        if (slot < 0 || slot >= capacity()) {
+            return;
+        }
+        int flags;
+        do {
+            flags = parsed.get(slot);
+        } while (!parsed.compareAndSet(slot, flags, flags & ~BLOCKED));
+    }
+
+    private boolean claim(int slot, int stamp, int type) {
+        if (slot < 0 || (stamp & BLOCKED) != 0) {
+            return false;
+        }
+        int flags;
+        do {
+            flags = parsed.get(slot);
+            if ((flags & GENERATION_MASK) != (stamp & GENERATION_MASK)
+                    || (flags & (BLOCKED | type | type << FILLING_SHIFT)) != 0) {
+                return false;
+            }
+        } while (!parsed.compareAndSet(slot, flags, flags | type << FILLING_SHIFT));
+        return true;
+    }
+
+    // lets go of the claim and marks the type parsed unless the slot was blocked since the stamp
+    private void publish(int slot, int stamp, int type) {
+        int flags;
+        int next;
+        do {
+            flags = parsed.get(slot);
+            next = flags & ~(type << FILLING_SHIFT);
+            if ((flags & GENERATION_MASK) == (stamp & GENERATION_MASK) && (flags & BLOCKED) == 0) {
+                next |= type;
+            }
+        } while (!parsed.compareAndSet(slot, flags, next));
+    }
+
+    boolean hasInteger(int slot) {
+        return slot >= 0 && has(slot, INT);
+    }
+
+    boolean hasLonging(int slot) {
+        return slot >= 0 && has(slot, LONG);
+    }
+
+    boolean hasFloating(int slot) {
+        return slot >= 0 && has(slot, FLOAT);
+    }
+
+    boolean hasDoubling(int slot) {
+        return slot >= 0 && has(slot, DOUBLE);
+    }
+
+    boolean hasBooling(int slot) {
+        return slot >= 0 && has(slot, BOOLEAN);
+    }
+
+    // Parse failures are not cached - the exception is thrown again on every read
+
+    int integer(int slot, String value) {
+        return integer(slot, stamp(slot), value);
+    }
+
+    int integer(int slot, int stamp, String value) {
+        if (hasInteger(slot)) {
+            return ints[slot];
+        }
+        int v = Integer.parseInt(value);
+        if (claim(slot, stamp, INT)) {
+            ints[slot] = v;
+            publish(slot, stamp, INT);
+        }
+        return v;
+    }
+
+    long longing(int slot, String value) {
+        return longing(slot, stamp(slot), value);
+    }
+
+    long longing(int slot, int stamp, String value) {
+        if (hasLonging(slot)) {
+            return longs[slot];
+        }
+        long v = Long.parseLong(value);
+        if (claim(slot, stamp, LONG)) {
+            longs[slot] = v;
+            publish(slot, stamp, LONG);
+        }
+        return v;
+    }
+
+    float floating(int slot, String value) {
+        return floating(slot, stamp(slot), value);
+    }
+
+    float floating(int slot, int stamp, String value) {
+        if (hasFloating(slot)) {
+            return floats[slot];
+        }
+        float v = Float.parseFloat(value);
+        if (claim(slot, stamp, FLOAT)) {
+            floats[slot] = v;
+            publish(slot, stamp, FLOAT);
+        }
+        return v;
+    }
+
+    double doubling(int slot, String value) {
+        return doubling(slot, stamp(slot), value);
+    }
+
+    double doubling(int slot, int stamp, String value) {
+        if (hasDoubling(slot)) {
+            return doubles[slot];
+        }
+        double v = Double.parseDouble(value);
+        if (claim(slot, stamp, DOUBLE)) {
+            doubles[slot] = v;
+            publish(slot, stamp, DOUBLE);
+        }
+        return v;
+    }
+
+    boolean booling(int slot, String value) {
+        return booling(slot, stamp(slot), value);
+    }
+
+    boolean booling(int slot, int stamp, String value) {
+        if (hasBooling(slot)) {
+            return booleans[slot];
+        }
+        boolean v = Boolean.parseBoolean(value);
+        if (claim(slot, stamp, BOOLEAN)) {
+            booleans[slot] = v;
+            publish(slot, stamp, BOOLEAN);
+        }
+        return v;
+    }
+
+    int getInteger(int slot) {
+        return ints[slot];
+    }
+
+    long getLonging(int slot) {
+        return longs[slot];
+    }
+
+    float getFloating(int slot) {
+        return floats[slot];
+    }
+
+    double getDoubling(int slot) {
+        return doubles[slot];
+    }
+
+    boolean getBooling(int slot) {
+        return booleans[slot];
+    }
+}
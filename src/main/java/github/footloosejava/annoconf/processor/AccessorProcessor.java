@@ -0,0 +1,207 @@
+package github.footloosejava.annoconf.processor;
+
+import github.footloosejava.annoconf.Accessor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the typed accessor classes of types annotated with {@link Accessor}.
+ */
+@SupportedAnnotationTypes("github.footloosejava.annoconf.Accessor")
+public class AccessorProcessor extends AbstractProcessor {
+
+    private static final String CONFIGURABLE = "github.footloosejava.annoconf.Configurable";
+    private static final String SUFFIX = "Accessor";
+    // THE ACCESSORS TAKE NO ARGUMENTS - so every no argument method of Object clashes with them
+    private static final Set<String> OBJECT_METHODS = new HashSet<>(Arrays.asList(
+            "getClass", "hashCode", "toString", "clone", "finalize", "notify", "notifyAll", "wait"));
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Accessor.class)) {
+            TypeElement type = (TypeElement) element;
+            TypeMirror configurable = processingEnv.getElementUtils().getTypeElement(CONFIGURABLE).asType();
+            if (!processingEnv.getTypeUtils().isAssignable(type.asType(), configurable)) {
+                error(type, "@Accessor types must implement " + CONFIGURABLE);
+                continue;
+            }
+            List<Constant> constants = constants(type);
+            if (constants != null) {
+                write(type, constants);
+            }
+        }
+        return true;
+    }
+
+    private static final class Constant {
+        private final String name;
+        private final String getter;
+        private final String javaType;
+        private final String method;
+
+        private Constant(String name, String getter, String javaType, String method) {
+            this.name = name;
+            this.getter = getter;
+            this.javaType = javaType;
+            this.method = method;
+        }
+    }
+
+    /**
+     * @return the constants or null after an error was reported
+     */
+    private List<Constant> constants(TypeElement type) {
+        List<Constant> constants = new ArrayList<>();
+        Map<String, String> getters = new HashMap<>();
+        boolean valid = true;
+        for (Element member : type.getEnclosedElements()) {
+            boolean constant = member.getKind() == ElementKind.ENUM_CONSTANT
+                    || member.getKind() == ElementKind.FIELD
+                    && member.getModifiers().contains(Modifier.PUBLIC)
+                    && member.getModifiers().contains(Modifier.STATIC)
+                    && member.getModifiers().contains(Modifier.FINAL)
+                    && processingEnv.getTypeUtils().isSameType(member.asType(), type.asType());
+            if (!constant) {
+                continue;
+            }
+            String name = member.getSimpleName().toString();
+            String valueType = valueType(member);
+            String[] mapping = mapping(valueType);
+            if (mapping == null) {
+                error(member, "@Accessor.Type must be int, long, float, double, boolean or String, not " + valueType);
+                valid = false;
+                continue;
+            }
+            // SAME GETTER TWICE - e.g. FOO_BAR, FOO__BAR and Foo_Bar, the generated class would not compile
+            String getter = getter(name);
+            if (OBJECT_METHODS.contains(getter)) {
+                error(member, "Accessor method '" + getter + "()' of " + name + " clashes with Object." + getter + "()");
+                valid = false;
+                continue;
+            }
+            String previous = getters.putIfAbsent(getter, name);
+            if (previous != null) {
+                error(member, "Accessor method '" + getter + "()' of " + name + " collides with the one of " + previous);
+                valid = false;
+                continue;
+            }
+            constants.add(new Constant(name, getter, mapping[0], mapping[1]));
+        }
+        return valid ? constants : null;
+    }
+
+    private static String valueType(Element member) {
+        Accessor.Type type = member.getAnnotation(Accessor.Type.class);
+        if (type == null) {
+            return String.class.getName();
+        }
+        try {
+            return type.value().getName();
+        } catch (MirroredTypeException e) {
+            // THE CLASS IS NOT LOADED WHILE COMPILING - only its mirror is available
+            return e.getTypeMirror().toString();
+        }
+    }
+
+    // {java type, Configuration method}
+    private static String[] mapping(String valueType) {
+        switch (valueType) {
+            case "int":
+                return new String[]{"int", "integer"};
+            case "long":
+                return new String[]{"long", "longing"};
+            case "float":
+                return new String[]{"float", "floating"};
+            case "double":
+                return new String[]{"double", "doubling"};
+            case "boolean":
+                return new String[]{"boolean", "booling"};
+            case "java.lang.String":
+                return new String[]{"String", "string"};
+            default:
+                return null;
+        }
+    }
+
+    // TEST_NUMBER -> testNumber
+    private static String getter(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean upper = false;
+        for (char c : name.toCharArray()) {
+            if (c == '_') {
+                upper = sb.length() > 0;
+            } else {
+                sb.append(upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                upper = false;
+            }
+        }
+        String getter = sb.length() == 0 ? name : sb.toString();
+        return SourceVersion.isKeyword(getter) ? getter + "_" : getter;
+    }
+
+    private void write(TypeElement type, List<Constant> constants) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getQualifiedName().toString();
+        String className = type.getSimpleName() + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("/**");
+                out.println(" * The values of {@link " + typeName + "} resolved once from a configuration.");
+                out.println(" * Generated by " + AccessorProcessor.class.getName() + ", do not edit.");
+                out.println(" */");
+                out.println("public final class " + className + " {");
+                out.println();
+                for (Constant c : constants) {
+                    out.println("    private final " + c.javaType + " " + c.getter + ";");
+                }
+                out.println();
+                out.println("    public " + className + "(github.footloosejava.annoconf.Configuration configuration) {");
+                for (Constant c : constants) {
+                    out.println("        this." + c.getter + " = configuration." + c.method + "(" + typeName + "." + c.name + ");");
+                }
+                out.println("    }");
+                for (Constant c : constants) {
+                    out.println();
+                    out.println("    public " + c.javaType + " " + c.getter + "() {");
+                    out.println("        return " + c.getter + ";");
+                    out.println("    }");
+                }
+                out.println("}");
+            }
+        } catch (IOException e) {
+            error(type, "Cannot write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
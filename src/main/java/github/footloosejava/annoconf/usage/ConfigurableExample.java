@@ -5,7 +5,7 @@ import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.name.Named;
-import com.google.inject.name.Names;
+import github.footloosejava.annoconf.AnnoconfModule;
 import github.footloosejava.annoconf.Conf;
 import github.footloosejava.annoconf.Configuration;
 import github.footloosejava.annoconf.INIConfiguration;
@@ -24,15 +24,9 @@ public class ConfigurableExample extends AbstractModule {
 
     @Override
     public void configure() {
-        // Optional - Bind Configuration class to the instance
-        bind(Configuration.class).toInstance(configuration);
-
-        // BIND ALL THE DEFAULT VALUES AS ANNOTATIONS
-        configuration.forAllNonNull(SampleEnum.values(), SampleClass.values())
-                .forEach(confProp -> bindConstant().annotatedWith(confProp.annotation()).to(confProp.value()));
-
-        // A NICE EXTRA - Bind Non Null values as regular Named keys for FULLY QUALIFIED NAMES
-        configuration.forEach((k, v) -> bindConstant().annotatedWith(Names.named(k)).to(v));
+        // Binds the Configuration instance, all non null values as annotations
+        // and, as a nice extra, all values as regular Named keys for FULLY QUALIFIED NAMES
+        install(new AnnoconfModule(configuration, SampleEnum.values(), SampleClass.values()));
     }
 
 
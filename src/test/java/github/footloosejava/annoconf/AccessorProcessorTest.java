@@ -0,0 +1,61 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.processor.AccessorProcessor;
+import junit.framework.TestCase;
+
+import javax.tools.*;
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class AccessorProcessorTest extends TestCase {
+
+    public void testGeneratedAccessor() {
+        INIConfiguration configuration = new INIConfiguration("src/test/resources/test.ini")
+                .putDefaults(AccessorSample.values());
+        configuration.put(AccessorSample.RATIO, "0.25");
+
+        AccessorSampleAccessor accessor = new AccessorSampleAccessor(configuration);
+        assertEquals(8080, accessor.port());
+        assertTrue(accessor.enabled());
+        assertEquals(0.25d, accessor.ratio());
+        assertEquals("localhost", accessor.hostName());
+    }
+
+    public void testCollidingAccessorsAreReported() throws Exception {
+        String source = "@github.footloosejava.annoconf.Accessor\n"
+                + "public enum Colliding implements github.footloosejava.annoconf.Configurable {\n"
+                + "    FOO_BAR, FOO__BAR, HASH_CODE;\n"
+                + "    public github.footloosejava.annoconf.ConfProps getConfProps() {\n"
+                + "        return null;\n"
+                + "    }\n"
+                + "}\n";
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///Colliding.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        File out = Files.createTempDirectory("accessor").toFile();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-classpath", "target/classes", "-d", out.getPath(), "-s", out.getPath()),
+                null, Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new AccessorProcessor()));
+
+        assertFalse(task.call());
+        List<String> errors = diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.toList());
+        assertEquals(errors.toString(), 2, errors.size());
+        assertTrue(errors.get(0), errors.get(0).contains("FOO__BAR collides with the one of FOO_BAR"));
+        assertTrue(errors.get(1), errors.get(1).contains("clashes with Object.hashCode()"));
+        assertFalse(new File(out, "CollidingAccessor.java").exists());
+    }
+}
@@ -0,0 +1,29 @@
+package github.footloosejava.annoconf;
+
+import com.google.inject.name.Names;
+
+@Accessor
+public enum AccessorSample implements Configurable {
+
+    @Accessor.Type(int.class)
+    PORT("8080"),
+    @Accessor.Type(boolean.class)
+    ENABLED("true"),
+    @Accessor.Type(double.class)
+    RATIO("0.5"),
+    HOST_NAME("localhost");
+
+    private final ConfProps confProps;
+
+    AccessorSample(String defaultValue) {
+        this.confProps = ConfigurableBuilder.ofEnumAnnotation(Names::named, getClass())
+                .setName(name())
+                .setDefaultValue(defaultValue)
+                .build();
+    }
+
+    @Override
+    public ConfProps getConfProps() {
+        return confProps;
+    }
+}
@@ -0,0 +1,96 @@
+package github.footloosejava.annoconf;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.name.Names;
+import com.google.inject.spi.ProviderInstanceBinding;
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AnnoconfModuleTest extends TestCase {
+
+    public void testBindings() {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        Injector injector = Guice.createInjector(new AnnoconfModule(configuration, SampleEnum.values(), SampleClass.values()));
+
+        assertSame(configuration, injector.getInstance(Configuration.class));
+        assertEquals(Integer.valueOf(123), injector.getInstance(
+                Key.get(Integer.class, SampleEnum.TEST_NUMBER.getConfProps().getAnnotation())));
+        assertEquals(Long.valueOf(123), injector.getInstance(
+                Key.get(Long.class, SampleClass.FOO.getConfProps().getAnnotation())));
+        assertEquals("www.bar.com", injector.getInstance(
+                Key.get(String.class, SampleClass.BAR.getConfProps().getAnnotation())));
+        assertEquals("TEST 3 SECTION_TRANSLATE", injector.getInstance(
+                Key.get(String.class, Names.named("github.footloosejava.annoconf.usage.SampleEnum-TEST_3"))));
+        assertEquals(Integer.valueOf(123), injector.getInstance(
+                Key.get(Integer.class, Names.named("usage.SampleClass-FOO"))));
+    }
+
+    public void testDynamicProviders() {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration().listenerExecutor(Runnable::run);
+        try (AnnoconfModule module = new AnnoconfModule(configuration, SampleEnum.values(), SampleClass.values()).dynamic()) {
+            Injector injector = Guice.createInjector(module);
+            Provider<Integer> number = injector.getProvider(
+                    Key.get(Integer.class, SampleEnum.TEST_NUMBER.getConfProps().getAnnotation()));
+            Provider<String> bar = injector.getProvider(
+                    Key.get(String.class, SampleClass.BAR.getConfProps().getAnnotation()));
+            assertEquals(Integer.valueOf(123), number.get());
+            assertEquals("www.bar.com", bar.get());
+
+            configuration.put(SampleEnum.TEST_NUMBER, "7");
+            configuration.put(SampleClass.BAR, "www.baz.com");
+            assertEquals(Integer.valueOf(7), number.get());
+            assertEquals("www.baz.com", bar.get());
+        }
+    }
+
+    public void testOneTypedBindingPerKey() {
+        Injector injector = Guice.createInjector(new AnnoconfModule(INIConfigurationTest.sampleConfiguration(),
+                SampleEnum.values()));
+        Annotation annotation = SampleEnum.TEST_NUMBER.getConfProps().getAnnotation();
+        assertTrue(injector.getBindings().containsKey(Key.get(Integer.class, annotation)));
+        assertFalse(injector.getBindings().containsKey(Key.get(Long.class, annotation)));
+        assertFalse(injector.getBindings().containsKey(Key.get(Double.class, annotation)));
+        // OTHER TYPES ARE CONVERTED BY GUICE
+        assertEquals(Double.valueOf(123), injector.getInstance(Key.get(Double.class, annotation)));
+    }
+
+    public void testLazyNamedKeys() {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        Injector injector = Guice.createInjector(new AnnoconfModule(configuration, SampleEnum.values()).lazyNamedAbove(0));
+        Key<String> key = Key.get(String.class, Names.named("usage.SampleClass-FOO"));
+        assertTrue(injector.getBinding(key) instanceof ProviderInstanceBinding);
+        assertEquals("123", injector.getInstance(key));
+        assertEquals(Integer.valueOf(123), injector.getInstance(
+                Key.get(Integer.class, SampleEnum.TEST_NUMBER.getConfProps().getAnnotation())));
+    }
+
+    public void testDynamicSubscribesOncePerModule() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        OverlayConfiguration configuration = new OverlayConfiguration(INIConfigurationTest.sampleConfiguration()) {
+            @Override
+            public ConfigurationSubscription subscribeNamespace(String namespacePrefix, ConfigurationListener listener) {
+                subscriptions.incrementAndGet();
+                return super.subscribeNamespace(namespacePrefix, listener);
+            }
+        }.listenerExecutor(Runnable::run);
+        try (AnnoconfModule module = new AnnoconfModule(configuration, SampleEnum.values()).dynamic()) {
+            Key<Integer> key = Key.get(Integer.class, SampleEnum.TEST_NUMBER.getConfProps().getAnnotation());
+            Provider<Integer> first = Guice.createInjector(module).getProvider(key);
+            int perModule = subscriptions.get();
+            assertTrue(perModule > 0);
+            Provider<Integer> second = Guice.createInjector(module).getProvider(key);
+            assertEquals(perModule, subscriptions.get());
+
+            configuration.put(SampleEnum.TEST_NUMBER, "7");
+            assertEquals(Integer.valueOf(7), first.get());
+            assertEquals(Integer.valueOf(7), second.get());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.WeakReference;
+
+public class ConfigKeyTest extends TestCase {
+
+    public void testInterning() {
+        ConfigKey key = ConfigKey.of(SampleEnum.TEST_NUMBER);
+        assertSame(key, ConfigKey.of(new StringBuilder(key.getFullyQualifiedName())));
+        assertEquals(key.getFullyQualifiedName().hashCode(), key.hashCode());
+        assertEquals("plain", ConfigKey.of("plain").toString());
+
+        // GROWS PAST THE FIRST TABLE
+        for (int i = 0; i < 200; i++) {
+            assertEquals("tenant" + i + "-KEY", ConfigKey.of("tenant" + i + "-KEY").getFullyQualifiedName());
+        }
+        assertSame(key, ConfigKey.of(SampleEnum.TEST_NUMBER));
+    }
+
+    public void testUnreferencedKeysAreReleased() {
+        WeakReference<ConfigKey> tenant = new WeakReference<>(ConfigKey.of("released-tenant-KEY"));
+        for (int i = 0; i < 50 && tenant.get() != null; i++) {
+            System.gc();
+        }
+        if (tenant.get() != null) {
+            // the collector did not run, nothing to check
+            return;
+        }
+        // REBUILDS DROP THE RELEASED KEYS - the name is interned again
+        for (int i = 0; i < 1000; i++) {
+            ConfigKey.of("released-" + i + "-KEY");
+        }
+        ConfigKey again = ConfigKey.of("released-tenant-KEY");
+        assertEquals("released-tenant-KEY", again.getFullyQualifiedName());
+        assertSame(again, ConfigKey.of(new StringBuilder("released-tenant-KEY")));
+    }
+
+    public void testReadsDoNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        ConfigurationSnapshot snapshot = configuration.snapshot();
+        String namespace = SampleEnum.TEST_NUMBER.getConfProps().getNameSpace();
+        StringBuilder name = new StringBuilder(128);
+        // keys are held weakly, the keys read below must outlive a collection during the measurement
+        ConfigKey testNumber = ConfigKey.of(SampleEnum.TEST_NUMBER);
+        ConfigKey foo = ConfigKey.of("SampleClass-FOO");
+
+        long sum = 0;
+        long allocated = 0;
+        // THE FIRST ROUNDS WARM UP - the last one is measured
+        for (int round = 0; round < 5; round++) {
+            long before = allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < 20_000; i++) {
+                name.setLength(0);
+                name.append(namespace).append('-').append("TEST_NUMBER");
+                ConfigKey key = ConfigKey.of(name);
+                sum += configuration.integer(key) + snapshot.integer(key);
+                sum += configuration.string(key).length() + snapshot.string(key).length();
+                sum += configuration.string(ConfigKey.of("SampleClass-FOO")).length();
+            }
+            allocated = allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        }
+        assertTrue(sum > 0);
+        assertSame(testNumber, ConfigKey.of(SampleEnum.TEST_NUMBER));
+        assertSame(foo, ConfigKey.of("SampleClass-FOO"));
+        // a few bytes of slack for the measurement itself
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+}
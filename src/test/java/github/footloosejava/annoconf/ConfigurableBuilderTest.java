@@ -0,0 +1,29 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import junit.framework.TestCase;
+
+public class ConfigurableBuilderTest extends TestCase {
+
+    private static ConfigurableBuilder foo(String defaultValue) {
+        return ConfigurableBuilder.ofClassAnnotation(SampleClass.class, "usage.SampleClass")
+                .setName("FOO")
+                .setDescription("The renouned FOO object")
+                .setDefaultValue(defaultValue)
+                .build();
+    }
+
+    public void testEquality() {
+        ConfigurableBuilder foo = foo("123");
+        assertEquals(SampleClass.FOO.getConfProps(), foo);
+        assertEquals(SampleClass.FOO.getConfProps().hashCode(), foo.hashCode());
+        assertEquals(ConfPropsRegistry.id(SampleClass.FOO.getConfProps()), foo.getId());
+
+        ConfigurableBuilder other = foo("456");
+        assertFalse(foo.equals(other));
+        assertFalse(other.equals(foo));
+        assertTrue(foo.getId() != other.getId());
+        assertTrue(other.getId() < ConfPropsRegistry.size());
+        assertEquals(SampleClass.FOO.getConfProps().getAnnotation(), new Conf.ConfAnnotation(SampleClass.class, "FOO"));
+    }
+}
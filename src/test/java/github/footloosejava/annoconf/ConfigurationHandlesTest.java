@@ -0,0 +1,41 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MutableCallSite;
+
+public class ConfigurationHandlesTest extends TestCase {
+
+    public void testConstants() throws Throwable {
+        ConfigurationHandles handles = ConfigurationHandles.freeze(INIConfigurationTest.sampleConfiguration());
+        MethodHandle number = handles.constant(SampleEnum.TEST_NUMBER, int.class);
+        MethodHandle bar = handles.constant(SampleClass.BAR, String.class);
+        assertEquals(123, (int) number.invokeExact());
+        assertEquals("www.bar.com", (String) bar.invokeExact());
+        try {
+            handles.constant(SampleEnum.TEST_NUMBER, Integer.class);
+            fail("boxed type accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    public void testRelinking() throws Throwable {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration().listenerExecutor(Runnable::run);
+        try (ConfigurationHandles handles = ConfigurationHandles.of(configuration)) {
+            MutableCallSite site = handles.relinking(SampleEnum.TEST_NUMBER, int.class);
+            MethodHandle number = site.dynamicInvoker();
+            assertEquals(123, (int) number.invokeExact());
+
+            configuration.put(SampleEnum.TEST_NUMBER, "7");
+            assertEquals(7, (int) number.invokeExact());
+
+            // NOT A NUMBER - keeps the last value
+            configuration.put(SampleEnum.TEST_NUMBER, "seven");
+            assertEquals(7, (int) number.invokeExact());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+public class ConfigurationMetricsTest extends TestCase {
+
+    public void testCounters() {
+        JmxConfigurationMetrics metrics = new JmxConfigurationMetrics();
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration().metrics(metrics);
+        assertEquals(1, metrics.getLoads());
+        assertFalse(metrics.getKeysPerSection().isEmpty());
+
+        // A DEFAULT, THEN AN INI VALUE, THEN NOTHING
+        assertEquals("123", configuration.string(SampleEnum.TEST_NUMBER));
+        assertNotNull(configuration.stringFullyQualifiedName("SampleClass-FOO"));
+        assertNull(configuration.stringFullyQualifiedName("nothing-here"));
+        assertEquals(1, metrics.getProgrammaticReads());
+        assertEquals(1, metrics.getIniReads());
+        assertEquals(1, metrics.getMissingReads());
+
+        configuration.integer(SampleEnum.TEST_NUMBER);
+        configuration.integer(SampleEnum.TEST_NUMBER);
+        assertEquals(1, metrics.getTypedCacheMisses());
+        assertEquals(1, metrics.getTypedCacheHits());
+        assertEquals(Long.valueOf(3), metrics.getReadsPerKey().get(SampleEnum.TEST_NUMBER.getConfProps().getFullyQualifiedName()));
+
+        configuration.put(SampleClass.BAR, "not a number");
+        try {
+            configuration.doubling(SampleClass.BAR);
+            fail("parsed 'not a number'");
+        } catch (NumberFormatException expected) {
+            assertEquals(1, metrics.getParseFailures());
+        }
+
+        assertTrue(configuration.reload());
+        assertEquals(1, metrics.getReloads());
+
+        configuration.freeze();
+        configuration.integer(SampleEnum.TEST_NUMBER);
+        assertEquals(1, metrics.getSnapshotReads());
+        configuration.boolingFullyQualifiedName("nothing-here");
+        assertEquals(1, metrics.getSnapshotReads());
+        assertEquals(2, metrics.getMissingReads());
+    }
+
+    public void testReadsPerKeyAreBounded() {
+        JmxConfigurationMetrics metrics = new JmxConfigurationMetrics(2);
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration().metrics(metrics);
+        for (int i = 0; i < 100; i++) {
+            configuration.stringFullyQualifiedName("tenant" + i + "-KEY");
+        }
+        assertEquals(3, metrics.getReadsPerKey().size());
+        assertEquals(Long.valueOf(98), metrics.getReadsPerKey().get(JmxConfigurationMetrics.OTHER_KEYS));
+        // COUNTED KEYS KEEP COUNTING
+        configuration.stringFullyQualifiedName("tenant0-KEY");
+        assertEquals(Long.valueOf(2), metrics.getReadsPerKey().get("tenant0-KEY"));
+
+        metrics.reset();
+        assertTrue(metrics.getReadsPerKey().isEmpty());
+    }
+
+    public void testRegister() throws Exception {
+        try (JmxConfigurationMetrics metrics = new JmxConfigurationMetrics().register("test")) {
+            ObjectName name = new ObjectName("github.footloosejava.annoconf:type=Configuration,name=\"test\"");
+            INIConfigurationTest.sampleConfiguration().metrics(metrics).string(SampleEnum.TEST_NUMBER);
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Reads"));
+        }
+    }
+}
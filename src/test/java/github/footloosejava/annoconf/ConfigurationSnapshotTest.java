@@ -0,0 +1,82 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class ConfigurationSnapshotTest extends TestCase {
+
+    public void testFreezeKeepsResolvedValues() {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        configuration.put(SampleEnum.TEST_2, "override");
+
+        Map<String, String> before = new LinkedHashMap<>();
+        for (SampleEnum e : SampleEnum.values()) {
+            before.put(e.getConfProps().getFullyQualifiedName(), configuration.string(e));
+        }
+        before.put("SampleEnum-TEST_3", configuration.stringFullyQualifiedName("SampleEnum-TEST_3"));
+        before.put("usage.SampleClass-FOO", configuration.stringFullyQualifiedName("usage.SampleClass-FOO"));
+        before.put("missing-KEY", configuration.stringFullyQualifiedName("missing-KEY"));
+        String settings = configuration.allSettings();
+
+        configuration.freeze();
+
+        before.forEach((k, v) -> assertEquals(k, v, configuration.stringFullyQualifiedName(k)));
+        assertEquals("override", configuration.string(SampleEnum.TEST_2));
+        assertEquals("TEST 3 SECTION_TRANSLATE", configuration.string(SampleEnum.TEST_3));
+        assertEquals(123, configuration.integer(SampleEnum.TEST_NUMBER));
+        assertEquals(settings, configuration.allSettings());
+    }
+
+    public void testNamespace() {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        configuration.put(SampleClass.BAR, "www.bar.com");
+
+        Map<String, String> expected = new TreeMap<>();
+        configuration.forEach((k, v) -> {
+            if (k.startsWith("usage.")) {
+                expected.put(k, v);
+            }
+        });
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, configuration.namespace("usage."));
+        assertEquals("www.bar.com", configuration.namespace("usage.SampleClass").get("usage.SampleClass-BAR"));
+        assertTrue(configuration.namespace("zzz").isEmpty());
+
+        ConfigurationSnapshot snapshot = configuration.snapshot();
+        assertEquals(expected, snapshot.namespace("usage."));
+        List<String> keys = new ArrayList<>();
+        snapshot.forEachWithPrefix("usage.SampleClass-", (k, v) -> keys.add(k));
+        assertEquals(new ArrayList<>(snapshot.namespace("usage.SampleClass-").keySet()), keys);
+
+        configuration.freeze();
+        assertEquals(expected, configuration.namespace("usage."));
+    }
+
+    public void testFrozenConfigurationRejectsPuts() {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        configuration.freeze();
+        try {
+            configuration.put(SampleEnum.TEST_2, "value");
+            fail("frozen configuration accepted a put");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        try {
+            configuration.snapshot().putFullyQualifiedName("a-b", "value");
+            fail("snapshot accepted a put");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    public void testCopyOf() {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        ConfigurationSnapshot copy = ConfigurationSnapshot.copyOf(configuration);
+        assertEquals(configuration.keys(SampleEnum.values()).size(), copy.keys(SampleEnum.values()).size());
+        assertEquals("www.bar.com", copy.string(SampleClass.BAR));
+        assertNull(copy.string(SampleEnum.TEST_NULL));
+    }
+}
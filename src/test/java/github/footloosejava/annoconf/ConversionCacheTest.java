@@ -0,0 +1,129 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConversionCacheTest extends TestCase {
+
+    public void testConvertsOncePerValue() {
+        AtomicInteger conversions = new AtomicInteger();
+        Converter<Integer> length = value -> {
+            conversions.incrementAndGet();
+            return value.length();
+        };
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        configuration.put(SampleClass.BAR, "abc");
+
+        assertEquals(Integer.valueOf(3), configuration.get(SampleClass.BAR, length));
+        assertEquals(Integer.valueOf(3), configuration.get(ConfigKey.of(SampleClass.BAR), length));
+        assertEquals(1, conversions.get());
+
+        configuration.put(SampleClass.BAR, "abcd");
+        assertEquals(Integer.valueOf(4), configuration.get(SampleClass.BAR, length));
+        assertEquals(2, conversions.get());
+
+        configuration.put(SampleClass.BAR, null);
+        assertNull(configuration.get(SampleClass.BAR, length));
+        assertEquals(2, conversions.get());
+    }
+
+    public void testOverlaysDoNotEvictEachOther() {
+        AtomicInteger conversions = new AtomicInteger();
+        Converter<Integer> length = value -> {
+            conversions.incrementAndGet();
+            return value.length();
+        };
+        LayeredConfiguration base = new LayeredConfiguration();
+        base.put(SampleClass.BAR, "abc");
+        OverlayConfiguration tenant = new OverlayConfiguration(base,
+                Collections.singletonMap(SampleClass.BAR.getConfProps().getFullyQualifiedName(), "abcdef"));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(3), base.get(SampleClass.BAR, length));
+            assertEquals(Integer.valueOf(6), tenant.get(SampleClass.BAR, length));
+        }
+        assertEquals(2, conversions.get());
+    }
+
+    public void testConverters() {
+        LayeredConfiguration configuration = new LayeredConfiguration();
+        configuration.put(SampleClass.BAR, " a, b ,,c ");
+        configuration.put(SampleClass.BAZ, "PT30S");
+        configuration.put(SampleEnum.TEST_2, " SECONDS ");
+
+        assertEquals(Arrays.asList("a", "b", "c"), configuration.get(SampleClass.BAR, Converter.LIST));
+        assertEquals(Duration.ofSeconds(30), configuration.get(SampleClass.BAZ, Converter.DURATION));
+        assertSame(Converter.enumOf(TimeUnit.class), Converter.enumOf(TimeUnit.class));
+        assertEquals(TimeUnit.SECONDS, configuration.get(SampleEnum.TEST_2, Converter.enumOf(TimeUnit.class)));
+        assertTrue(configuration.get(SampleClass.BAR, Converter.PATTERN).matcher(" a, b ,,c ").matches());
+    }
+
+    public void testEvictsAboveTheBound() {
+        ConversionCache cache = new ConversionCache(10_000);
+        AtomicInteger conversions = new AtomicInteger();
+        Converter<String> upper = value -> {
+            conversions.incrementAndGet();
+            return value.toUpperCase();
+        };
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("VALUE" + i, cache.get("value" + i, upper));
+            assertTrue(cache.weight() <= 10_000);
+        }
+        // THE MOST RECENT ENTRY SURVIVES, THE OLDEST IS GONE
+        assertEquals("VALUE999", cache.get("value999", upper));
+        assertEquals(1_000, conversions.get());
+        assertEquals("VALUE0", cache.get("value0", upper));
+        assertEquals(1_001, conversions.get());
+        cache.clear();
+        assertEquals(0, cache.weight());
+    }
+
+    public void testEvictsTheLeastRecentlyRead() {
+        ConversionCache cache = new ConversionCache(10_000);
+        AtomicInteger conversions = new AtomicInteger();
+        Converter<String> upper = value -> {
+            conversions.incrementAndGet();
+            return value.toUpperCase();
+        };
+        cache.get("hot", upper);
+        for (int i = 0; i < 1_000; i++) {
+            cache.get("value" + i, upper);
+            assertEquals("HOT", cache.get("hot", upper));
+        }
+        assertEquals(1_001, conversions.get());
+    }
+
+    public void testPrunesConvertersWithoutEntries() {
+        ConversionCache cache = new ConversionCache(10_000);
+        for (int i = 0; i < 1_000; i++) {
+            // a new converter per read, the anti pattern the pruning bounds
+            Converter<String> converter = value -> value;
+            cache.get("value" + i, converter);
+        }
+        assertTrue(cache.weight() <= 10_000);
+        assertTrue("converters " + cache.converters(), cache.converters() < 100);
+        cache.clear();
+        assertEquals(0, cache.converters());
+    }
+
+    public void testWeighsTheResult() {
+        ConversionCache cache = new ConversionCache(1 << 20);
+        Converter<String> light = Converter.weighed(value -> value, (value, result) -> 0);
+        Converter<String> heavy = Converter.weighed(value -> value, (value, result) -> 10_000);
+        cache.get("value", light);
+        long entry = cache.weight();
+        cache.get("value", heavy);
+        assertEquals(2 * entry + 10_000, cache.weight());
+
+        // A RESULT LARGER THAN THE BOUND IS EVICTED AT ONCE
+        ConversionCache small = new ConversionCache(5_000);
+        small.get("value", heavy);
+        assertEquals(0, small.weight());
+    }
+}
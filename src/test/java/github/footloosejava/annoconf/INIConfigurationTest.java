@@ -0,0 +1,310 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class INIConfigurationTest extends TestCase {
+
+    static INIConfiguration sampleConfiguration() {
+        return new INIConfiguration(Paths.get("src", "test", "resources", "test.ini").toString())
+                .addNamespaceToINIMapping("github.footloosejava.annoconf.usage.SampleEnum", "SampleEnum")
+                .addNamespaceToINIMapping("usage.SampleClass", "SampleClass")
+                .putDefaults(SampleEnum.values())
+                .putDefaults(SampleClass.values());
+    }
+
+    public void testConcurrentTypedReadsEndWithTheLastPut() throws Exception {
+        INIConfiguration configuration = sampleConfiguration();
+        ExecutorService readers = Executors.newFixedThreadPool(3);
+        AtomicReference<Boolean> writing = new AtomicReference<>(true);
+        for (int r = 0; r < 3; r++) {
+            readers.execute(() -> {
+                while (writing.get()) {
+                    configuration.integer(SampleClass.BAR);
+                    configuration.longing(SampleClass.BAR);
+                }
+            });
+        }
+        for (int i = 0; i < 20_000; i++) {
+            configuration.put(SampleClass.BAR, (i & 1) == 0 ? "1" : "2");
+        }
+        configuration.put(SampleClass.BAR, "3");
+        writing.set(false);
+        readers.shutdown();
+        assertTrue(readers.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(3, configuration.integer(SampleClass.BAR));
+        assertEquals(3L, configuration.longing(SampleClass.BAR));
+    }
+
+    public void testTypedReadsFollowPuts() {
+        INIConfiguration configuration = sampleConfiguration();
+        assertEquals(123, configuration.integer(SampleEnum.TEST_NUMBER));
+        assertEquals(123L, configuration.longing(SampleEnum.TEST_NUMBER));
+        assertEquals(123d, configuration.doubling(SampleEnum.TEST_NUMBER));
+
+        configuration.put(SampleEnum.TEST_NUMBER, "456");
+        assertEquals(456, configuration.integer(SampleEnum.TEST_NUMBER));
+        assertEquals(456L, configuration.longing(SampleEnum.TEST_NUMBER));
+        assertEquals(456f, configuration.floating(SampleEnum.TEST_NUMBER));
+
+        configuration.putFullyQualifiedName(SampleEnum.TEST_NUMBER.getConfProps().getFullyQualifiedName(), "true");
+        assertTrue(configuration.booling(SampleEnum.TEST_NUMBER));
+        try {
+            configuration.integer(SampleEnum.TEST_NUMBER);
+            fail("'true' parsed as an int");
+        } catch (NumberFormatException expected) {
+            // expected
+        }
+    }
+
+    public void testEnumConfiguration() {
+        INIConfiguration configuration = sampleConfiguration();
+        configuration.put(SampleEnum.TEST_2, "override");
+        EnumConfiguration<SampleEnum> view = EnumConfiguration.of(configuration, SampleEnum.class);
+        for (SampleEnum e : SampleEnum.values()) {
+            assertEquals(configuration.string(e), view.string(e));
+        }
+        assertEquals("override", view.string(SampleEnum.TEST_2));
+        assertEquals(123, view.integer(SampleEnum.TEST_NUMBER));
+
+        configuration.put(SampleEnum.TEST_NUMBER, "7");
+        view.refresh();
+        assertEquals(7, view.integer(SampleEnum.TEST_NUMBER));
+    }
+
+    public void testReload() throws Exception {
+        File file = File.createTempFile("annoconf", ".ini");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "[usage.SampleClass]\nFOO = 1\n".getBytes(StandardCharsets.UTF_8));
+
+        INIConfiguration configuration = new INIConfiguration(file.getPath());
+        assertEquals(1, configuration.integer(SampleClass.FOO));
+        configuration.freeze();
+
+        try (IniFileWatcher ignored = configuration.watch(50, TimeUnit.MILLISECONDS)) {
+            Files.write(file.toPath(), "[usage.SampleClass]\nFOO = 2\n".getBytes(StandardCharsets.UTF_8));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (configuration.integer(SampleClass.FOO) != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, configuration.integer(SampleClass.FOO));
+        }
+
+        // A BROKEN FILE KEEPS THE PREVIOUS VALUES
+        Files.write(file.toPath(), "FOO = 3\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(configuration.reload());
+        assertEquals(2, configuration.integer(SampleClass.FOO));
+    }
+
+    public void testDirectoryOfFragments() throws Exception {
+        File directory = Files.createTempDirectory("annoconf").toFile();
+        directory.deleteOnExit();
+        File base = new File(directory, "00-base.ini");
+        File site = new File(directory, "10-site.ini");
+        base.deleteOnExit();
+        site.deleteOnExit();
+        Files.write(base.toPath(), "[usage.SampleClass]\nFOO = 1\nBAR = base\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(site.toPath(), "[usage.SampleClass]\nFOO = 2\n".getBytes(StandardCharsets.UTF_8));
+
+        INIConfiguration configuration = INIConfiguration.directory("-", directory.getPath(), false);
+        assertEquals(2, configuration.integer(SampleClass.FOO));
+        assertEquals("base", configuration.string(SampleClass.BAR));
+
+        // REMOVED FRAGMENTS DROP OUT ON RELOAD
+        assertTrue(site.delete());
+        assertTrue(configuration.reload());
+        assertEquals(1, configuration.integer(SampleClass.FOO));
+
+        // AN EXPLICIT LIST KEEPS ITS ORDER AND SKIPS MISSING FILES
+        Files.write(site.toPath(), "[usage.SampleClass]\nFOO = 2\n".getBytes(StandardCharsets.UTF_8));
+        List<String> fragments = new ArrayList<>();
+        fragments.add(site.getPath());
+        fragments.add(new File(directory, "missing.ini").getPath());
+        fragments.add(base.getPath());
+        INIConfiguration listed = new INIConfiguration("-", fragments, true);
+        assertEquals(1, listed.integer(SampleClass.FOO));
+        assertTrue(listed.keys(SampleClass.values()).contains("usage.SampleClass-BAR"));
+
+        // A LIST OF ONE IS STILL A FRAGMENT LIST - its file may go missing
+        INIConfiguration single = new INIConfiguration("-", Collections.singletonList(site.getPath()), false);
+        assertEquals(2, single.integer(SampleClass.FOO));
+        assertTrue(site.delete());
+        assertTrue(single.reload());
+        assertNull(single.string(SampleClass.FOO));
+    }
+
+    public void testManyFragmentsKeepTheirOrder() throws Exception {
+        File directory = Files.createTempDirectory("annoconf").toFile();
+        directory.deleteOnExit();
+        for (int i = 0; i < 10; i++) {
+            File fragment = new File(directory, i + ".ini");
+            fragment.deleteOnExit();
+            Files.write(fragment.toPath(), ("[usage.SampleClass]\nFOO = " + i + "\nKEY" + i + " = v\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        INIConfiguration configuration = INIConfiguration.directory("-", directory.getPath(), false);
+        assertEquals(9, configuration.integer(SampleClass.FOO));
+        assertEquals("v", configuration.stringFullyQualifiedName("usage.SampleClass-KEY0"));
+        assertTrue(configuration.reload());
+        assertEquals(9, configuration.integer(SampleClass.FOO));
+    }
+
+    public void testMappingReplacesCachedMiss() {
+        INIConfiguration configuration = sampleConfiguration();
+        String foo = configuration.getIniValueFullyQualifiedName("SampleClass-FOO");
+        assertNotNull(foo);
+        assertNull(configuration.stringFullyQualifiedName("other.SampleClass-FOO"));
+        assertNull(configuration.stringFullyQualifiedName("other.SampleClass-FOO"));
+
+        configuration.addNamespaceToINIMapping("other.SampleClass", "SampleClass");
+        assertEquals(foo, configuration.stringFullyQualifiedName("other.SampleClass-FOO"));
+        assertEquals(foo, configuration.getIniValueFullyQualifiedName("-", "other.SampleClass-FOO"));
+    }
+
+    public void testListenersReceiveCoalescedChanges() {
+        INIConfiguration configuration = sampleConfiguration().listenerExecutor(Runnable::run);
+        List<ConfigurationChange> keyChanges = new ArrayList<>();
+        List<ConfigurationChange> namespaceChanges = new ArrayList<>();
+        configuration.subscribe(SampleEnum.TEST_NUMBER, keyChanges::addAll);
+        ConfigurationSubscription subscription = configuration.subscribeNamespace("usage.", namespaceChanges::addAll);
+
+        configuration.put(SampleEnum.TEST_NUMBER, "1");
+        configuration.put(SampleClass.BAR, "www.bar.com");
+        configuration.put(SampleClass.BAZ, "changed");
+        assertEquals(1, keyChanges.size());
+        assertEquals("123", keyChanges.get(0).oldValue());
+        assertEquals("1", keyChanges.get(0).newValue());
+        assertEquals(1, namespaceChanges.size());
+        assertEquals("usage.SampleClass-BAZ", namespaceChanges.get(0).key());
+
+        subscription.close();
+        configuration.put(SampleClass.BAZ, "again");
+        assertEquals(1, namespaceChanges.size());
+
+        // A STORM OF PUTS BEFORE DELIVERY IS ONE CHANGE
+        List<Runnable> tasks = new ArrayList<>();
+        configuration.listenerExecutor(tasks::add);
+        configuration.put(SampleEnum.TEST_NUMBER, "2");
+        configuration.put(SampleEnum.TEST_NUMBER, "3");
+        configuration.put(SampleEnum.TEST_NUMBER, "4");
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(2, keyChanges.size());
+        assertEquals("1", keyChanges.get(1).oldValue());
+        assertEquals("4", keyChanges.get(1).newValue());
+    }
+
+    public void testConcurrentPutsDeliverTheFinalValue() throws Exception {
+        ExecutorService delivery = Executors.newSingleThreadExecutor();
+        INIConfiguration configuration = sampleConfiguration().listenerExecutor(delivery);
+        AtomicReference<String> seen = new AtomicReference<>();
+        configuration.subscribe(SampleClass.BAR, changes -> changes.forEach(c -> seen.set(c.newValue())));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    configuration.put(SampleClass.BAR, thread + "-" + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        delivery.shutdown();
+        assertTrue(delivery.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(configuration.string(SampleClass.BAR), seen.get());
+    }
+
+    public void testLazySections() throws Exception {
+        String filename = Paths.get("src", "test", "resources", "test.ini").toString();
+        INIConfiguration eager = sampleConfiguration();
+        INIConfiguration lazy = new INIConfiguration("-", filename, true)
+                .addNamespaceToINIMapping("github.footloosejava.annoconf.usage.SampleEnum", "SampleEnum")
+                .addNamespaceToINIMapping("usage.SampleClass", "SampleClass")
+                .putDefaults(SampleEnum.values())
+                .putDefaults(SampleClass.values());
+        for (SampleEnum e : SampleEnum.values()) {
+            assertEquals(eager.string(e), lazy.string(e));
+        }
+        assertEquals(eager.allSettings(), lazy.allSettings());
+
+        // ONLY THE SECTIONS THAT ARE READ ARE PARSED
+        File file = File.createTempFile("annoconf", ".ini");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "[A]\nX = 1\n[B]\nbroken\n[A]\nY = 2\n".getBytes(StandardCharsets.UTF_8));
+        INIConfiguration configuration = new INIConfiguration("-", file.getPath(), true);
+        assertEquals(1, configuration.integerFullyQualifiedName("A-X"));
+        assertEquals(2, configuration.integerFullyQualifiedName("A-Y"));
+        try {
+            configuration.stringFullyQualifiedName("B-X");
+            fail("broken section was parsed");
+        } catch (UncheckedIOException expected) {
+            // expected
+        }
+    }
+
+    public void testKeyIndexFollowsPuts() {
+        INIConfiguration configuration = sampleConfiguration();
+        String settings = configuration.allSettings();
+        assertEquals(settings, configuration.snapshot().allSettings());
+
+        configuration.putFullyQualifiedName("extra-KEY", "1");
+        configuration.put(SampleEnum.TEST_2, "override");
+        configuration.putFullyQualifiedName(SampleEnum.TEST_1.getConfProps().getFullyQualifiedName(), null);
+        assertTrue(configuration.keys(new ArrayList<>()).contains("extra-KEY"));
+        assertEquals(configuration.snapshot().allSettings(), configuration.allSettings());
+
+        List<String> listed = new ArrayList<>();
+        configuration.forEach((k, v) -> {
+            listed.add(k);
+            assertEquals(k, configuration.stringFullyQualifiedName(k), v);
+        });
+        assertEquals(new ArrayList<>(configuration.keys(new ArrayList<>())), listed);
+
+        configuration.putFullyQualifiedName("extra-KEY", null);
+        assertFalse(configuration.keys(new ArrayList<>()).contains("extra-KEY"));
+    }
+
+    public void testBatch() {
+        INIConfiguration configuration = sampleConfiguration();
+        configuration.forEach((k, v) -> {
+        });
+        ConfigurationSnapshot before = configuration.snapshot();
+        ConfigurationBatch batch = configuration.batch()
+                .put(SampleEnum.TEST_NUMBER, "7")
+                .putFullyQualifiedName("extra-KEY", "1")
+                .remove(SampleEnum.TEST_1);
+        assertEquals(3, batch.size());
+        assertEquals(123, configuration.integer(SampleEnum.TEST_NUMBER));
+        batch.apply();
+
+        assertEquals(7, configuration.integer(SampleEnum.TEST_NUMBER));
+        assertEquals("1", configuration.stringFullyQualifiedName("extra-KEY"));
+        assertEquals("TEST 1 SECTION_TRANSLATE", configuration.string(SampleEnum.TEST_1));
+        assertEquals("TEST 1 FROM CONFIGURABLE", before.string(SampleEnum.TEST_1));
+        assertEquals(configuration.snapshot().allSettings(), configuration.allSettings());
+        try {
+            batch.apply();
+            fail("batch applied twice");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+}
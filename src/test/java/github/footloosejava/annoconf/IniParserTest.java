@@ -0,0 +1,79 @@
+package github.footloosejava.annoconf;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+public class IniParserTest extends TestCase {
+
+    private static Map<String, Map<String, String>> parse(String content) throws IOException {
+        File file = File.createTempFile("annoconf", ".ini");
+        try {
+            Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            return IniParser.parse(file.toPath());
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testSyntax() throws IOException {
+        Map<String, Map<String, String>> sections = parse("\uFEFF; comment\r\n  # comment\n[ S ]\n"
+                + "A = 1 ; not a comment\n"
+                + "B =\n"
+                + "C: two\n"
+                + "D:=x\n"
+                + "E = a\\tb\\\\c\\u00e9\\q\n"
+                + "F = long \\\n   continued\n"
+                + "  G  =  spaced  \n"
+                + "ü = é\n"
+                + "A = 2\n"
+                + "[T/u]\nK=v\n"
+                + "[S]\nH=h\n");
+
+        Map<String, String> s = sections.get("S");
+        assertEquals("2", s.get("A"));
+        assertEquals("", s.get("B"));
+        assertEquals("two", s.get("C"));
+        assertEquals("=x", s.get("D"));
+        assertEquals("a\tb\\céq", s.get("E"));
+        assertEquals("long continued", s.get("F"));
+        assertEquals("spaced", s.get("G"));
+        assertEquals("é", s.get("ü"));
+        assertEquals("h", s.get("H"));
+        assertEquals("v", sections.get("T/u").get("K"));
+        assertEquals(2, sections.size());
+    }
+
+    public void testEscapedKeys() throws IOException {
+        Map<String, String> s = parse("[S]\nk\\=x = 1\na\\:b: 2\ntab\\tbed = 3\nback\\\\ = 4\n").get("S");
+        assertEquals("1", s.get("k=x"));
+        assertEquals("2", s.get("a:b"));
+        assertEquals("3", s.get("tab\tbed"));
+        assertEquals("4", s.get("back\\"));
+        assertEquals(4, s.size());
+    }
+
+    // DIFFERENCES FROM INI4J - documented on IniParser
+    public void testNoSubstitutionAndFlatSections() throws IOException {
+        Map<String, Map<String, String>> sections = parse("[a]\nk = v\n[a/b]\nref = ${a/k}\nenv = ${@env/HOME}\n");
+        assertEquals("${a/k}", sections.get("a/b").get("ref"));
+        assertEquals("${@env/HOME}", sections.get("a/b").get("env"));
+        assertEquals(1, sections.get("a").size());
+        assertEquals(2, sections.size());
+    }
+
+    public void testErrors() {
+        for (String broken : new String[]{"A=1\n", "[S]\nnoseparator\n", "[S]\n=nokey\n", "[ ]\n", "[S\n"}) {
+            try {
+                parse(broken);
+                fail("parsed '" + broken + "'");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().startsWith("parse error"));
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+public class LayeredConfigurationTest extends TestCase {
+
+    private static LayeredConfiguration sampleConfiguration() {
+        INIConfiguration file = new INIConfiguration("src/test/resources/test.ini")
+                .addNamespaceToINIMapping("github.footloosejava.annoconf.usage.SampleEnum", "SampleEnum")
+                .addNamespaceToINIMapping("usage.SampleClass", "SampleClass");
+        return new LayeredConfiguration()
+                .load(LayeredConfiguration.Layer.FILE, file)
+                .putDefaults(SampleEnum.values())
+                .putDefaults(SampleClass.values());
+    }
+
+    public void testPrecedence() {
+        LayeredConfiguration configuration = sampleConfiguration();
+        // FILE OVER DEFAULTS
+        assertEquals(456, configuration.integer(SampleClass.FOO));
+        assertEquals("TEST 1 SECTION_TRANSLATE", configuration.string(SampleEnum.TEST_1));
+        assertEquals("www.bar.com", configuration.string(SampleClass.BAR));
+
+        configuration.put(LayeredConfiguration.Layer.OVERRIDES, SampleClass.FOO.getConfProps().getFullyQualifiedName(), "1");
+        assertEquals(1, configuration.integer(SampleClass.FOO));
+        configuration.put(SampleClass.FOO, "2");
+        assertEquals(2, configuration.integer(SampleClass.FOO));
+
+        // REMOVING A LAYER VALUE UNCOVERS THE ONE BELOW
+        configuration.put(SampleClass.FOO, null);
+        assertEquals(1, configuration.integer(SampleClass.FOO));
+        assertNull(configuration.layer(LayeredConfiguration.Layer.RUNTIME).string(SampleClass.FOO));
+        assertTrue(configuration.keys(new ArrayList<>()).contains("usage.SampleClass-FOO"));
+    }
+
+    public void testPutAllPublishesOneVersion() {
+        LayeredConfiguration configuration = sampleConfiguration();
+        ConfigurationSnapshot before = configuration.snapshot();
+        Map<String, String> values = new HashMap<>();
+        values.put("a-X", "1");
+        values.put("a-Y", "2");
+        configuration.putAll(LayeredConfiguration.Layer.RUNTIME, values);
+        assertNull(before.stringFullyQualifiedName("a-X"));
+        assertEquals("2", configuration.stringFullyQualifiedName("a-Y"));
+        assertEquals(configuration.snapshot().allSettings(), configuration.allSettings());
+
+        configuration.freeze();
+        try {
+            configuration.put(SampleClass.FOO, "3");
+            fail("frozen configuration accepted a put");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    public void testListeners() throws Exception {
+        LayeredConfiguration configuration = sampleConfiguration().listenerExecutor(Runnable::run);
+        ConcurrentLinkedQueue<ConfigurationChange> changes = new ConcurrentLinkedQueue<>();
+        configuration.subscribe(SampleClass.FOO, changes::addAll);
+        configuration.put(LayeredConfiguration.Layer.DEFAULTS, SampleClass.FOO.getConfProps().getFullyQualifiedName(), "0");
+        configuration.put(SampleClass.FOO, "7");
+        List<ConfigurationChange> received = new ArrayList<>(changes);
+        assertEquals(1, received.size());
+        assertEquals("456", received.get(0).oldValue());
+        assertEquals("7", received.get(0).newValue());
+    }
+
+    public void testSources() throws Exception {
+        Path properties = Files.createTempFile("annoconf", ".properties");
+        try {
+            Files.write(properties, Arrays.asList("usage.SampleClass-FOO = 1", "usage.SampleClass-BAR = www.file.com"),
+                    StandardCharsets.UTF_8);
+            System.setProperty("annoconf.test.usage.SampleClass-FOO", "2");
+            Map<String, String> environment = new HashMap<>();
+            environment.put("APP_USAGE_SAMPLECLASS_BAZ", "www.env.com");
+            environment.put("APP_USAGE_SAMPLECLASS_FOO", "3");
+
+            LayeredConfiguration configuration = sampleConfiguration()
+                    .load(LayeredConfiguration.Layer.FILE, ConfigurationSource.properties(properties))
+                    .load(LayeredConfiguration.Layer.OVERRIDES,
+                            ConfigurationSource.environment("APP_", environment, SampleClass.values()),
+                            ConfigurationSource.systemProperties("annoconf.test."));
+            assertEquals(2, configuration.integer(SampleClass.FOO));
+            assertEquals("www.file.com", configuration.string(SampleClass.BAR));
+            assertEquals("www.env.com", configuration.string(SampleClass.BAZ));
+            assertEquals("APP_USAGE_SAMPLECLASS_FOO",
+                    ConfigurationSource.environmentName("APP_", SampleClass.FOO.getConfProps().getFullyQualifiedName()));
+        } finally {
+            System.clearProperty("annoconf.test.usage.SampleClass-FOO");
+            Files.delete(properties);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedConfigurationTest extends TestCase {
+
+    public void testRoundTrip() throws IOException {
+        INIConfiguration configuration = INIConfigurationTest.sampleConfiguration();
+        configuration.put(SampleEnum.TEST_2, "override é");
+        Path file = Files.createTempFile("annoconf", ".bin");
+        try {
+            MappedConfiguration.write(configuration, file);
+            MappedConfiguration mapped = MappedConfiguration.open(file);
+
+            for (SampleEnum e : SampleEnum.values()) {
+                assertEquals(e.name(), configuration.string(e), mapped.string(e));
+            }
+            for (SampleClass c : SampleClass.values()) {
+                assertEquals(configuration.string(c), mapped.string(c));
+            }
+            assertEquals(configuration.stringFullyQualifiedName("SampleEnum-TEST_3"),
+                    mapped.stringFullyQualifiedName("SampleEnum-TEST_3"));
+            assertNull(mapped.stringFullyQualifiedName("missing-KEY"));
+            assertEquals("override é", mapped.string(SampleEnum.TEST_2));
+            assertEquals(123, mapped.integer(SampleEnum.TEST_NUMBER));
+            assertEquals(configuration.allSettings(), mapped.allSettings());
+            assertEquals(configuration.keys(SampleEnum.values()), mapped.keys(SampleEnum.values()));
+            assertEquals(configuration.namespace("usage."), mapped.namespace("usage."));
+            assertEquals(configuration.namespace(""), mapped.namespace(""));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("annoconf", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3});
+            MappedConfiguration.open(file);
+            fail("opened a file that is not compiled");
+        } catch (IOException expected) {
+            // expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
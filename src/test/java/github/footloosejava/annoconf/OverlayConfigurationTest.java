@@ -0,0 +1,69 @@
+package github.footloosejava.annoconf;
+
+import github.footloosejava.annoconf.usage.SampleClass;
+import github.footloosejava.annoconf.usage.SampleEnum;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class OverlayConfigurationTest extends TestCase {
+
+    private static final String TEST_NUMBER = SampleEnum.TEST_NUMBER.getConfProps().getFullyQualifiedName();
+
+    public void testOverridesAndFallback() {
+        INIConfiguration base = INIConfigurationTest.sampleConfiguration();
+        OverlayConfiguration overlay = new OverlayConfiguration(base, Collections.singletonMap(TEST_NUMBER, "7"));
+
+        assertEquals(7, overlay.integer(SampleEnum.TEST_NUMBER));
+        assertEquals(7, overlay.integer(SampleEnum.TEST_NUMBER));
+        assertEquals(7L, overlay.longing(ConfigKey.of(SampleEnum.TEST_NUMBER)));
+        assertEquals(123, base.integer(SampleEnum.TEST_NUMBER));
+        assertEquals(base.string(SampleEnum.TEST_2), overlay.string(SampleEnum.TEST_2));
+        assertEquals(1, overlay.size());
+
+        // BASE CHANGES ARE SEEN WHERE NOT OVERRIDDEN
+        base.put(SampleClass.BAR, "www.bar.com");
+        assertEquals("www.bar.com", overlay.string(SampleClass.BAR));
+
+        overlay.put(SampleClass.BAR, "tenant");
+        assertEquals("tenant", overlay.string(SampleClass.BAR));
+        assertEquals("tenant", overlay.snapshot().string(SampleClass.BAR));
+        assertEquals("7", overlay.namespace("github.").get(TEST_NUMBER));
+        assertTrue(overlay.allSettings().contains("value= 'tenant'"));
+        assertEquals("www.bar.com", base.string(SampleClass.BAR));
+
+        // REMOVING THE OVERRIDE SHOWS THE BASE AGAIN
+        overlay.put(SampleClass.BAR, null);
+        assertEquals("www.bar.com", overlay.string(SampleClass.BAR));
+
+        overlay.freeze();
+        try {
+            overlay.put(SampleClass.BAR, "again");
+            fail("frozen overlay accepted a put");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    public void testBaseChangesOfOverriddenNamesAreHidden() {
+        INIConfiguration base = INIConfigurationTest.sampleConfiguration().listenerExecutor(Runnable::run);
+        OverlayConfiguration overlay = new OverlayConfiguration(base, Collections.singletonMap(TEST_NUMBER, "7"))
+                .listenerExecutor(Runnable::run);
+        List<ConfigurationChange> changes = new ArrayList<>();
+        ConfigurationSubscription subscription = overlay.subscribeNamespace("", changes::addAll);
+
+        base.put(SampleEnum.TEST_NUMBER, "1");
+        assertTrue(changes.isEmpty());
+        base.put(SampleClass.BAZ, "changed");
+        assertEquals(1, changes.size());
+        overlay.put(SampleEnum.TEST_NUMBER, "8");
+        assertEquals(2, changes.size());
+        assertEquals("7", changes.get(1).oldValue());
+
+        subscription.close();
+        base.put(SampleClass.BAZ, "again");
+        assertEquals(2, changes.size());
+    }
+}
@@ -0,0 +1,45 @@
+package github.footloosejava.annoconf;
+
+import junit.framework.TestCase;
+
+public class TypedValueCacheTest extends TestCase {
+
+    public void testBlockDropsOnlyItsSlot() {
+        TypedValueCache cache = new TypedValueCache(4);
+        assertEquals(1, cache.integer(0, cache.stamp(0), "1"));
+        assertEquals(2L, cache.longing(1, cache.stamp(1), "2"));
+        assertTrue(cache.hasInteger(0));
+
+        cache.block(0);
+        assertFalse(cache.hasInteger(0));
+        assertTrue(cache.hasLonging(1));
+        // A STAMP TAKEN DURING THE CHANGE - the value may be either, it is not cached
+        int during = cache.stamp(0);
+        assertEquals(3, cache.integer(0, during, "3"));
+        cache.unblock(0);
+        assertFalse(cache.hasInteger(0));
+
+        assertEquals(4, cache.integer(0, cache.stamp(0), "4"));
+        assertTrue(cache.hasInteger(0));
+        assertEquals(4, cache.getInteger(0));
+    }
+
+    public void testValueReadBeforeAChangeIsNotCached() {
+        TypedValueCache cache = new TypedValueCache(4);
+        int before = cache.stamp(0);
+        cache.block(0);
+        cache.unblock(0);
+        assertEquals(1, cache.integer(0, before, "1"));
+        assertFalse(cache.hasInteger(0));
+        assertEquals(2, cache.integer(0, cache.stamp(0), "2"));
+        assertEquals(2, cache.getInteger(0));
+    }
+
+    public void testSlotsOutOfRangeAreNotCached() {
+        TypedValueCache cache = new TypedValueCache(4);
+        assertEquals(5, cache.integer(-1, "5"));
+        cache.block(4);
+        cache.unblock(4);
+        assertFalse(cache.hasInteger(-1));
+    }
+}